@@ -16,3 +16,43 @@ Hadoop_ID    VARCHAR(50),
 Mapper       VARCHAR(255),
 Reducer      VARCHAR(255)
 );
+
+-- Final statuses of completed jobs, so that they need not be retrieved again
+CREATE TABLE IF NOT EXISTS Statuses
+(
+ID           BIGINT PRIMARY KEY,
+State        VARCHAR(20),
+Status       BLOB           -- A serialized JobStatus
+);
+
+-- Information about Hadoop jobs recorded at submission, so that it need not
+-- be read back from the job's configuration
+CREATE TABLE IF NOT EXISTS JobInfos
+(
+ID           BIGINT PRIMARY KEY,
+Info         BLOB           -- A serialized JobInfo
+);
+
+-- Results of completed test jobs, so that they outlive the server. The output
+-- and error files are kept in the temporary directory until the results
+-- expire.
+CREATE TABLE IF NOT EXISTS TestResults
+(
+ID                  BIGINT PRIMARY KEY,
+Killed              BOOLEAN DEFAULT FALSE,
+Started             TIMESTAMP,
+Finished            TIMESTAMP,
+
+Map_Code            INT,
+Map_Output          VARCHAR(1024),
+Map_Output_Size     BIGINT,
+Map_Errors          VARCHAR(1024),
+Map_Errors_Size     BIGINT,
+
+-- NULL if the reducer did not run
+Reduce_Code         INT,
+Reduce_Output       VARCHAR(1024),
+Reduce_Output_Size  BIGINT,
+Reduce_Errors       VARCHAR(1024),
+Reduce_Errors_Size  BIGINT
+);
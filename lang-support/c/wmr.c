@@ -19,5 +19,8 @@
 
 void wmr_emit(const char* key, const char* val)
 {
-    printf("%s%c%s\n", key, DELIMITER, val);
+    if (binary_records())
+        write_kv_pair(key, val);
+    else
+        printf("%s%c%s\n", key, DELIMITER, val);
 }
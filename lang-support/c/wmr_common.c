@@ -13,6 +13,18 @@
    limitations under the License. */
 
 #include "wmr_common.h"
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <unistd.h>
+
+/* Where records are written in binary mode */
+static FILE* records = NULL;
+
+static void redirect_text_output(void);
+static int read_length(unsigned long* length);
+static size_t read_field(unsigned long length, char* buff, size_t size);
+static void write_field(const char* field);
 
 int split_kv_pair(char* line, char** key, char** val)
 {
@@ -46,3 +58,141 @@ int split_kv_pair(char* line, char** key, char** val)
     /* Check whether the line was empty and return */
     return (sep != line);
 }
+
+int binary_records(void)
+{
+    static int binary = -1;
+    const char* env;
+    
+    if (binary < 0)
+    {
+        env = getenv("WMR_BINARY");
+        binary = (env != NULL && strcmp(env, "1") == 0);
+        if (binary)
+            redirect_text_output();
+    }
+    return binary;
+}
+
+int read_kv_pair(char* buff, char** key, char** val)
+{
+    unsigned long length;
+    size_t used;
+    
+    if (!read_length(&length))
+        return 0;
+    *key = buff;
+    used = read_field(length, buff, BUFFSIZE / 2);
+    
+    if (!read_length(&length))
+        return 0;
+    *val = buff + used;
+    read_field(length, *val, BUFFSIZE - used);
+    return 1;
+}
+
+int grouped_records(void)
+{
+    static int grouped = -1;
+    const char* env;
+    
+    if (grouped < 0)
+    {
+        env = getenv("WMR_GROUPED");
+        grouped = binary_records() && env != NULL && strcmp(env, "1") == 0;
+    }
+    return grouped;
+}
+
+int read_group_key(char* buff)
+{
+    unsigned long length;
+    
+    if (!read_length(&length))
+        return 0;
+    read_field(length, buff, BUFFSIZE);
+    return 1;
+}
+
+int read_group_val(char* buff)
+{
+    unsigned long length;
+    
+    if (!read_length(&length) || length == GROUP_END)
+        return 0;
+    read_field(length, buff, BUFFSIZE);
+    return 1;
+}
+
+void write_kv_pair(const char* key, const char* val)
+{
+    write_field(key);
+    write_field(val);
+}
+
+/**
+ * Read a big-endian field length. Return 0 at the end of the input.
+ */
+int read_length(unsigned long* length)
+{
+    unsigned char bytes[4];
+    
+    if (fread(bytes, 1, 4, stdin) != 4)
+        return 0;
+    *length = ((unsigned long)bytes[0] << 24) | ((unsigned long)bytes[1] << 16) |
+              ((unsigned long)bytes[2] << 8) | (unsigned long)bytes[3];
+    return 1;
+}
+
+/**
+ * Read a field of the given length into buff, which holds size bytes, and
+ * null-terminate it, skipping whatever does not fit. Return the number of
+ * bytes of buff used, including the null.
+ */
+size_t read_field(unsigned long length, char* buff, size_t size)
+{
+    size_t stored = (length < size) ? length : size - 1;
+    
+    stored = fread(buff, 1, stored, stdin);
+    buff[stored] = '\0';
+    for (length -= stored; length > 0; length--)
+    {
+        if (getchar() == EOF)
+            break;
+    }
+    return stored + 1;
+}
+
+/**
+ * Keep standard output for records, and send whatever else the program prints
+ * there to standard error instead, where it cannot be mistaken for records.
+ */
+void redirect_text_output(void)
+{
+    int fd;
+    
+    records = stdout;
+    fflush(stdout);
+    fd = dup(STDOUT_FILENO);
+    if (fd == -1)
+        return;
+    records = fdopen(fd, "w");
+    if (records == NULL)
+    {
+        close(fd);
+        records = stdout;
+        return;
+    }
+    dup2(STDERR_FILENO, STDOUT_FILENO);
+}
+
+void write_field(const char* field)
+{
+    size_t length = strlen(field);
+    
+    putc((int)((length >> 24) & 0xff), records);
+    putc((int)((length >> 16) & 0xff), records);
+    putc((int)((length >> 8) & 0xff), records);
+    putc((int)(length & 0xff), records);
+    fwrite(field, 1, length, records);
+}
@@ -23,6 +23,7 @@
 
 #define BUFFSIZE 1024 * 1024
 #define DELIMITER '\t'
+#define GROUP_END 0xffffffffUL
 
 /**
  * Split the line into a key and value based on a globally-defined
@@ -38,4 +39,49 @@
  */
 int split_kv_pair(char* line, char** key, char** val);
 
+/**
+ * Return nonzero if key-value pairs are exchanged with WebMapReduce as
+ * length-prefixed records rather than lines, as indicated by the WMR_BINARY
+ * environment variable. If so, the first call also redirects anything else
+ * printed to standard output to standard error.
+ *
+ * Each field of a record is a 4-byte big-endian length followed by that many
+ * bytes; a record is the key field followed by the value field.
+ */
+int binary_records(void);
+
+/**
+ * Read a length-prefixed record from standard input into buff, which must
+ * hold BUFFSIZE bytes. Return 0 at the end of the input, nonzero otherwise.
+ *
+ * The key and val pointers will point to null-terminated copies of the key
+ * and value within buff. The key may take at most half of buff and the value
+ * the rest; whatever does not fit is discarded.
+ */
+int read_kv_pair(char* buff, char** key, char** val);
+
+/**
+ * Return nonzero if the reducer's length-prefixed input is grouped, as
+ * indicated by the WMR_GROUPED environment variable: each group is its key
+ * field, then its value fields, then a length of 0xffffffff.
+ */
+int grouped_records(void);
+
+/**
+ * Read the key field starting the next group of grouped input into buff,
+ * which must hold BUFFSIZE bytes. Return 0 at the end of the input, nonzero
+ * otherwise. Whatever does not fit is discarded.
+ */
+int read_group_key(char* buff);
+
+/**
+ * Read the next value field of the current group into buff, which must hold
+ * BUFFSIZE bytes. Return 0 at the end of the group (or input), nonzero
+ * otherwise. Whatever does not fit is discarded.
+ */
+int read_group_val(char* buff);
+
+/** Write a length-prefixed record to standard output. */
+void write_kv_pair(const char* key, const char* val);
+
 #endif
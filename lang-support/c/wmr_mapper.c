@@ -31,6 +31,14 @@ void run_mapper(void)
     char* key;
     char* val;
     
+    if (binary_records())
+    {
+        /* Run the mapper on every record of the input */
+        while (read_kv_pair(line, &key, &val))
+            mapper(key, val);
+        return;
+    }
+    
     /* Run the mapper on all non-empty lines of the input */
     while (fgets(line, BUFFSIZE, stdin) != NULL)
     {
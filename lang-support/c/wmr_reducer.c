@@ -21,6 +21,7 @@
 void reducer_get_next(void);
 
 static void run_reducer(void);
+static void run_grouped_reducer(void);
 static void swap(char**, char**);
 
 /* We maintain two separate buffers so that we can both save the current full
@@ -33,6 +34,8 @@ static char* reducer_line      = reducer_buff2;
 static char* reducer_key       = NULL;
 static char* reducer_val       = NULL;
 static int   reducer_key_index = 0;
+/* Whether the values of the current group of grouped input remain unread */
+static int   reducer_group_open = 0;
 
 
 int main()
@@ -46,6 +49,12 @@ void run_reducer(void)
 {
     char key[BUFFSIZE];
     
+    if (grouped_records())
+    {
+        run_grouped_reducer();
+        return;
+    }
+    
     /* "Prime" the buffers by getting the first key/value pair in the input */
     reducer_get_next();
     
@@ -57,6 +66,24 @@ void run_reducer(void)
     }
 }
 
+/**
+ * Run the reducer on each group of grouped input. Since each group starts
+ * with its key, there is no need to compare keys to find where it ends.
+ */
+void run_grouped_reducer(void)
+{
+    while (read_group_key(reducer_last_key))
+    {
+        reducer_key_index++;
+        reducer_group_open = 1;
+        reducer(reducer_last_key, reducer_key_index);
+        
+        /* Skip whatever values the reducer did not read */
+        while (wmr_get_val(reducer_key_index) != NULL)
+            ;
+    }
+}
+
 /**
  * Get the next value associated with the given key. Returns NULL if no more
  * values are available. This is part of the user-facing API (declared in
@@ -64,6 +91,14 @@ void run_reducer(void)
  */
 const char* wmr_get_val(wmr_handle h)
 {
+    if (grouped_records())
+    {
+        if (!reducer_group_open || h != reducer_key_index)
+            return NULL;
+        reducer_group_open = read_group_val(reducer_line);
+        return reducer_group_open ? reducer_line : NULL;
+    }
+    
     /* Check that we haven't reached the end of the input and that the
      * passed key matches the current one */
     if (reducer_key == NULL || h != reducer_key_index)
@@ -91,10 +126,12 @@ void reducer_get_next(void)
 {
     swap(&reducer_last_line, &reducer_line);
     
-    /* Read until EOF or a non-empty line */
+    /* Read until EOF or a non-empty line (or any record in binary mode) */
     while (1)
     {
-        if (fgets(reducer_line, BUFFSIZE, stdin) == NULL)
+        if (binary_records()
+            ? !read_kv_pair(reducer_line, &reducer_key, &reducer_val)
+            : fgets(reducer_line, BUFFSIZE, stdin) == NULL)
         {
             /* Signal EOF by setting pointers to null */
             reducer_key = NULL;
@@ -102,7 +139,8 @@ void reducer_get_next(void)
             return;
         }
         
-        if (split_kv_pair(reducer_line, &reducer_key, &reducer_val))
+        if (binary_records() ||
+            split_kv_pair(reducer_line, &reducer_key, &reducer_val))
         {
             /* Check whether key changed since last */
             if (strcmp(reducer_last_key, reducer_key) != 0)
@@ -62,10 +62,15 @@ namespace wmr
 	
 		// get the next key in the stream
 		internal::key_value_stream::getline();
-		std::string key(internal::key_value_stream::key());
+		const std::string & key = internal::key_value_stream::key();
 		
-		// check if the stream is still valid for this key
-		if (m_key != key)
+		// check if the stream is still valid for this key; grouped input
+		// marks where each key's values end, so keys need not be compared
+		bool endOfKey = internal::wmr_common::grouped()
+			? internal::key_value_stream::eof() ||
+				internal::key_value_stream::group_start()
+			: m_key != key;
+		if (endOfKey)
 		{
 			m_endOfKey = true;
 			m_key = key;
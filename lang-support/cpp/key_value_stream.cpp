@@ -22,6 +22,8 @@ namespace wmr
 		std::string key_value_stream::m_key("");
 		std::string key_value_stream::m_value("");
 		bool key_value_stream::m_eof = false;
+		bool key_value_stream::m_inGroup = false;
+		bool key_value_stream::m_groupStart = false;
 		
 		// feed the key_value_stream by getting and parsing a line of
 		// key-value input from standard input
@@ -33,10 +35,30 @@ namespace wmr
 			// don't do anything unnecessary
 			if (m_eof) return false;
 			
+			// grouped input gives each key once, before its values
+			if (wmr_common::grouped())
+			{
+				m_groupStart = !(m_inGroup && wmr_common::getgroupvalue(m_value));
+				if (m_groupStart)
+				{
+					m_inGroup = wmr_common::getgroupkey(m_key) &&
+						wmr_common::getgroupvalue(m_value);
+					m_eof = !m_inGroup;
+				}
+				return !m_eof;
+			}
+			
 			string line("");
 			m_key = line;
 			m_value = line;
 			
+			// length-prefixed records need no parsing
+			if (wmr_common::binary())
+			{
+				m_eof = !wmr_common::getrecord(m_key, m_value);
+				return !m_eof;
+			}
+			
 			// get input, and make sure that we haven't hit eof
 			long length = wmr_common::getline(line);
 			
@@ -82,5 +104,10 @@ namespace wmr
 		{
 			return m_eof;
 		}
+		
+		bool key_value_stream::group_start(void)
+		{
+			return m_groupStart;
+		}
 	}
 }
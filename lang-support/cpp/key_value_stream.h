@@ -35,6 +35,8 @@ namespace wmr
 			static std::string m_key;
 			static std::string m_value;
 			static bool m_eof;
+			static bool m_inGroup;
+			static bool m_groupStart;
 		
 		public:
 			/*
@@ -47,6 +49,12 @@ namespace wmr
 			static const std::string & key(void);
 			static const std::string & value(void);
 			static bool eof(void);
+			
+			/*
+				Whether the last pair read started a new group, when the input
+				is grouped.
+			*/
+			static bool group_start(void);
 		};
 	}
 }
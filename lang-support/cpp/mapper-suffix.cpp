@@ -19,6 +19,16 @@ int main(int argc, char ** argv)
 	std::string empty(""), line;
 	long length = -1;
 	
+	if (wmr::internal::wmr_common::binary())
+	{
+		std::string k, v;
+		while (wmr::internal::wmr_common::getrecord(k, v))
+		{
+			m.map(k, v);
+		}
+		return 0;
+	}
+	
 	length = wmr::internal::wmr_common::getline(line);
 	while (length >= 0)
 	{
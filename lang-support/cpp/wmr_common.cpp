@@ -16,16 +16,102 @@
 #include "wmr_common.h"
 
 #include <cstdio>
+#include <cstdlib>
 #include <cstring>
 #include <iostream>
 #include <sstream>
+#include <unistd.h>
 
 namespace wmr
 {
 	namespace internal
 	{
+		namespace
+		{
+			const unsigned long GROUP_END = 0xffffffffUL;
+			
+			// where records are written in binary mode
+			std::FILE * s_records = stdout;
+			
+			bool envSet(const char * name)
+			{
+				const char * env = std::getenv(name);
+				return env != NULL && std::strcmp(env, "1") == 0;
+			}
+			
+			// keep standard output for records, and send whatever else the
+			// program prints there (with std::cout or printf) to standard
+			// error instead, where it can't be mistaken for records
+			bool redirectTextOutput(bool binary)
+			{
+				if (!binary) return false;
+				
+				std::cout.flush();
+				std::fflush(stdout);
+				int fd = dup(STDOUT_FILENO);
+				if (fd == -1) return true;
+				std::FILE * records = fdopen(fd, "w");
+				if (records == NULL)
+				{
+					close(fd);
+					return true;
+				}
+				s_records = records;
+				dup2(STDERR_FILENO, STDOUT_FILENO);
+				return true;
+			}
+			
+			// read a 4-byte big-endian length, returning false on eof
+			bool readLength(unsigned long & length)
+			{
+				unsigned char bytes[4];
+				std::cin.read(reinterpret_cast<char *>(bytes), 4);
+				if (std::cin.gcount() != 4) return false;
+				
+				length = (static_cast<unsigned long>(bytes[0]) << 24) |
+					(static_cast<unsigned long>(bytes[1]) << 16) |
+					(static_cast<unsigned long>(bytes[2]) << 8) |
+					static_cast<unsigned long>(bytes[3]);
+				return true;
+			}
+			
+			void readField(unsigned long length, std::string & field)
+			{
+				field.resize(length);
+				if (length > 0)
+				{
+					std::cin.read(&field[0], length);
+					field.resize(std::cin.gcount());
+				}
+			}
+			
+			bool readField(std::string & field)
+			{
+				unsigned long length;
+				if (!readLength(length)) return false;
+				
+				readField(length, field);
+				return true;
+			}
+			
+			void writeField(const std::string & field)
+			{
+				unsigned long length = field.size();
+				char bytes[4] = {
+					static_cast<char>((length >> 24) & 0xff),
+					static_cast<char>((length >> 16) & 0xff),
+					static_cast<char>((length >> 8) & 0xff),
+					static_cast<char>(length & 0xff)
+				};
+				std::fwrite(bytes, 1, 4, s_records);
+				std::fwrite(field.data(), 1, field.size(), s_records);
+			}
+		}
+		
 		bool wmr_common::s_eof = false;
 		char wmr_common::s_delim = '\t';
+		bool wmr_common::s_binary = redirectTextOutput(envSet("WMR_BINARY"));
+		bool wmr_common::s_grouped = s_binary && envSet("WMR_GROUPED");
 		
 		long wmr_common::getline(std::string & str)
 		{
@@ -47,6 +133,55 @@ namespace wmr
 		{
 			return s_delim;
 		}
+		
+		bool wmr_common::binary(void)
+		{
+			return s_binary;
+		}
+		
+		bool wmr_common::getrecord(std::string & key, std::string & value)
+		{
+			if (s_eof) return false;
+			
+			s_eof = !(readField(key) && readField(value));
+			return !s_eof;
+		}
+		
+		bool wmr_common::grouped(void)
+		{
+			return s_grouped;
+		}
+		
+		bool wmr_common::getgroupkey(std::string & key)
+		{
+			if (s_eof) return false;
+			
+			s_eof = !readField(key);
+			return !s_eof;
+		}
+		
+		bool wmr_common::getgroupvalue(std::string & value)
+		{
+			unsigned long length;
+			if (s_eof) return false;
+			
+			if (!readLength(length))
+			{
+				s_eof = true;
+				return false;
+			}
+			if (length == GROUP_END) return false;
+			
+			readField(length, value);
+			return true;
+		}
+		
+		void wmr_common::putrecord(const std::string & key,
+			const std::string & value)
+		{
+			writeField(key);
+			writeField(value);
+		}
 	}
 	
 	std::vector<std::string> utility::splitString(const std::string & str,
@@ -30,12 +30,21 @@ namespace wmr
 			the standard getline function, and keeps track of the delimiter.
 			This delimiter is usually tab, but the can be adjusted to change how
 			keys and values are split. It is meant to be used statically.
+			
+			When the WMR_BINARY environment variable is "1", key-value pairs
+			are instead exchanged as length-prefixed records: the key, then
+			the value, each as a 4-byte big-endian length followed by that many
+			bytes. The reducer's input may further be grouped (WMR_GROUPED is
+			"1"): each key is sent once, followed by its values, then a length
+			of 0xffffffff.
 		*/
 		class wmr_common
 		{
 		private:
 			static bool s_eof;
 			static char s_delim;
+			static bool s_binary;
+			static bool s_grouped;
 		
 		public:
 			/*
@@ -45,6 +54,41 @@ namespace wmr
 			*/
 			static long getline(std::string &);
 			static char delimiter(void);
+			
+			/*
+				Whether key-value pairs are exchanged as length-prefixed
+				records rather than lines. If so, anything else printed to
+				standard output goes to standard error instead.
+			*/
+			static bool binary(void);
+			
+			/*
+				Reads a length-prefixed record from standard input into the
+				given key and value. Returns false at the end of input.
+			*/
+			static bool getrecord(std::string &, std::string &);
+			
+			/*
+				Whether the reducer's length-prefixed input is grouped.
+			*/
+			static bool grouped(void);
+			
+			/*
+				Reads the key starting the next group of grouped input.
+				Returns false at the end of input.
+			*/
+			static bool getgroupkey(std::string &);
+			
+			/*
+				Reads the next value of the current group of grouped input.
+				Returns false at the end of the group (or input).
+			*/
+			static bool getgroupvalue(std::string &);
+			
+			/*
+				Writes a length-prefixed record to standard output.
+			*/
+			static void putrecord(const std::string &, const std::string &);
 		};
 	}
 	
@@ -176,6 +220,13 @@ namespace wmr
 	template <typename T, typename K>
 	void emit(const T & key, const K & value)
 	{
+		if (internal::wmr_common::binary())
+		{
+			internal::wmr_common::putrecord(utility::toString(key),
+				utility::toString(value));
+			return;
+		}
+		
 		std::cout << key << internal::wmr_common::delimiter() << value
 			<< std::endl;
 	}
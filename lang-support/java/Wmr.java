@@ -13,8 +13,15 @@
  * limitations under the License.
 */
 
+import java.io.IOException;
+
 public class Wmr {
   public static void emit(String key, String value) {
-    System.out.println(key + WmrCommonImpl.delim + value);
+    try {
+      WmrCommonImpl.putPair(key, value);
+    } catch (IOException ex) {
+      throw new RuntimeException(
+        "IOException when trying to emit a key-value pair", ex);
+    }
   }
 }
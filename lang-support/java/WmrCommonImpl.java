@@ -17,12 +17,109 @@ import java.io.*;
 
 public class WmrCommonImpl {
   public static final char delim = '\t';
+
+	/**
+	 * Whether records are exchanged with WebMapReduce as length-prefixed
+	 * fields (a 4-byte big-endian length, then that many bytes of UTF-8, for
+	 * the key and then the value) rather than as lines.
+	 */
+	public static final boolean binary = "1".equals(System.getenv("WMR_BINARY"));
+	/**
+	 * Whether the reducer's input is instead each key followed by its values,
+	 * then a length of -1 to end the group.
+	 */
+	public static final boolean grouped =
+		binary && "1".equals(System.getenv("WMR_GROUPED"));
+	private static final int GROUP_END = -1;
 	
 	private static BufferedReader reader =
 		new BufferedReader(new InputStreamReader(System.in));
+	private static DataInputStream binaryIn =
+		new DataInputStream(new BufferedInputStream(System.in));
+	private static DataOutputStream binaryOut =
+		new DataOutputStream(new BufferedOutputStream(
+			new FileOutputStream(FileDescriptor.out)));
+
+	static {
+		// Records go straight to standard output, so send whatever else the
+		// program prints there to standard error, where it can't be mistaken
+		// for records
+		if (binary)
+			System.setOut(System.err);
+	}
 	
 	public static String getLine() throws IOException {
 		return reader.readLine();
 	}
-}
 
+	/**
+	 * Reads the next key-value pair of the input, or returns null at the end
+	 * of the input.
+	 */
+	public static String[] getPair() throws IOException {
+		if (binary) {
+			String key = getGroupKey();
+			if (key == null)
+				return null;
+			return new String[] { key, readField(binaryIn.readInt()) };
+		}
+
+		String line = getLine();
+		if (line == null)
+			return null;
+		int delimIndex = line.indexOf(delim);
+		if (delimIndex == -1)
+			return new String[] { line, "" };
+		return new String[] {
+			line.substring(0,delimIndex), line.substring(delimIndex+1) };
+	}
+
+	/**
+	 * Reads the key which starts the next group of grouped input, or returns
+	 * null at the end of the input.
+	 */
+	public static String getGroupKey() throws IOException {
+		int b = binaryIn.read();
+		if (b == -1)
+			return null;
+		return readField((b << 24) | (binaryIn.readUnsignedByte() << 16) |
+			binaryIn.readUnsignedShort());
+	}
+
+	/**
+	 * Reads the next value of the current group of grouped input, or returns
+	 * null at the end of the group.
+	 */
+	public static String getGroupValue() throws IOException {
+		int length = binaryIn.readInt();
+		if (length == GROUP_END)
+			return null;
+		return readField(length);
+	}
+
+	static void putPair(String key, String value) throws IOException {
+		if (binary) {
+			writeField(key);
+			writeField(value);
+		}
+		else
+			System.out.println(key + delim + value);
+	}
+
+	/** Flushes output which has not yet been written. */
+	static void finish() throws IOException {
+		binaryOut.flush();
+	}
+
+	private static String readField(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		binaryIn.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private static void writeField(String field) throws IOException {
+		byte[] bytes = field.getBytes("UTF-8");
+		binaryOut.writeInt(bytes.length);
+		binaryOut.write(bytes);
+	}
+}
@@ -18,9 +18,11 @@ import java.util.*;
 public class WmrIterator implements Iterator<String>, Iterable<String> {
 	
 	String myKey;
+	int myGroup;
 
 	WmrIterator(String key) {
 		myKey = key;
+		myGroup = WmrReducerImpl.group;
 	}
 
 	public WmrIterator iterator() {
@@ -28,6 +30,8 @@ public class WmrIterator implements Iterator<String>, Iterable<String> {
 	}
 	
 	public boolean hasNext() {
+		if (WmrReducerImpl.grouped)
+			return WmrReducerImpl.group == myGroup && WmrReducerImpl.nextValue != null;
 		return !WmrReducerImpl.endInput() && (WmrReducerImpl.nextKey.equals(myKey));
 	}
 
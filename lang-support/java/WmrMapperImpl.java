@@ -17,15 +17,11 @@ import java.io.*;
 public class WmrMapperImpl extends WmrCommonImpl {
 	public static void main(String[] args) throws IOException {
 		Mapper map = new Mapper();
-		String line;
+		String[] pair;
 		
-		while ((line = getLine()) != null) {
-			int delimIndex = line.indexOf(delim);
-			if (delimIndex == -1)
-				map.map(line, "");
-			else {
-				map.map(line.substring(0,delimIndex), line.substring(delimIndex+1));
-			}
+		while ((pair = getPair()) != null) {
+			map.map(pair[0], pair[1]);
 		}
+		finish();
 	}
 }
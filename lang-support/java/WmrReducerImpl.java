@@ -20,11 +20,17 @@ public class WmrReducerImpl extends WmrCommonImpl {
 
   static String nextKey = null; 
   static String nextValue = null;  /* waits to be delivered by WmrIterator.next() */
+  /* counts groups of grouped input, so that WmrIterator need not compare keys;
+     in grouped mode nextValue == null also at the end of each group */
+  static int group = 0;
   // Invariant:  after constructor, nextKey == null  iff  nextValue == null 
   //     iff  end of input
 
   static {
-    advance();
+    if (grouped)
+      nextGroup();
+    else
+      advance();
   }
 
   static boolean endInput() {
@@ -34,34 +40,58 @@ public class WmrReducerImpl extends WmrCommonImpl {
   /** Fetch next nextKey and nextValue.  
       If end of input stream, assign null to nextKey and nextValue. */
   static void advance() {
-    String line = null;
+    if (grouped) {
+      try {
+        nextValue = getGroupValue();
+      } catch (IOException ex) {
+        throw new RuntimeException(
+          "IOException when trying to read a value", ex);
+      }
+      return;
+    }
+
+    String[] pair = null;
     try {
-      line = getLine();
+      pair = getPair();
     } catch (IOException ex) {
       throw new RuntimeException(
         "IOException when trying to read a key-value pair", ex);
     }
-    if (line == null) {
+    if (pair == null) {
       // no more input
       nextKey = nextValue = null;
       return;
     }
-    // assert -- a fresh line was successfully fetched
-    int delimIndex = line.indexOf(delim);
-    if (delimIndex == -1) {
-      nextKey = line;
-      nextValue = "";
-    } else {
-			nextKey = line.substring(0,delimIndex);
-			nextValue = line.substring(delimIndex+1);
+    nextKey = pair[0];
+    nextValue = pair[1];
+  }
+
+  /** Skip to the start of the next group of grouped input, fetching its key
+      and first value into nextKey and nextValue.  
+      If end of input stream, assign null to nextKey and nextValue. */
+  static void nextGroup() {
+    while (nextValue != null)
+      advance();
+    try {
+      nextKey = getGroupKey();
+    } catch (IOException ex) {
+      throw new RuntimeException(
+        "IOException when trying to read a key", ex);
     }
+    group++;
+    if (nextKey != null)
+      advance();
   }
 
   public static void main(String[] args) 
     throws IOException, NoSuchElementException
 	{
     Reducer red = new Reducer();
-    while (!endInput())
+    while (!endInput()) {
       red.reduce(nextKey, new WmrIterator(nextKey));
+      if (grouped)
+        nextGroup();
+    }
+    finish();
   }
 }
@@ -14,36 +14,41 @@
 var stdin = process.stdin;
 var stdout = process.stdout;
 var data   = '';
-stdin.setEncoding('utf8');
-stdin.resume();
 
-stdin.on('data', function(chunk) {
-    if (chunk) {
-        data += chunk;
-        data = data.replace(/(\n|\r|\r\n)$/, '\n');
+if (Wmr.binary) {
+    Wmr.readRecords(stdin, mapper, function() {});
+} else {
+    stdin.setEncoding('utf8');
+    stdin.resume();
 
-        while (data.indexOf('\n') > -1) {
-            var i = data.indexOf('\n') + 1;
-            var line = data.slice(0, i);
-            var partition = Wmr.parseInput(data.slice(0, i));
-            //console.log(partition);
+    stdin.on('data', function(chunk) {
+        if (chunk) {
+            data += chunk;
+            data = data.replace(/(\n|\r|\r\n)$/, '\n');
+
+            while (data.indexOf('\n') > -1) {
+                var i = data.indexOf('\n') + 1;
+                var line = data.slice(0, i);
+                var partition = Wmr.parseInput(data.slice(0, i));
+                //console.log(partition);
+                if (partition.length === 2) {
+                    mapper(partition[0], partition[1]);
+                } else if (partition.length === 1) {
+                    mapper(partition[0]);
+                }
+                data = data.slice(i);
+            }
+        }
+    });
+
+    stdin.on('end', function() {
+       if (data) {
+            var partition = Wmr.parseInput(data);
             if (partition.length === 2) {
                 mapper(partition[0], partition[1]);
             } else if (partition.length === 1) {
                 mapper(partition[0]);
             }
-            data = data.slice(i);
-        }
-    }
-});
-
-stdin.on('end', function() {
-   if (data) {
-        var partition = Wmr.parseInput(data);
-        if (partition.length === 2) {
-            mapper(partition[0], partition[1]);
-        } else if (partition.length === 1) {
-            mapper(partition[0]);
         }
-    }
-});
+    });
+}
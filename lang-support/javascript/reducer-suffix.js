@@ -15,32 +15,44 @@ var stdin = process.stdin;
 var stdout = process.stdout;
 var data   = '';
 var info = {};
-stdin.setEncoding('utf8');
-stdin.resume();
 
-stdin.on('data', function(chunk) {
-    if (chunk) {
-        data += chunk;
-        data = data.replace(/\r\n/g, '\n');
-
-        while (data.indexOf('\n') > -1) {
-            var i = data.indexOf('\n') + 1;
-            var partition = Wmr.parseInput(data.slice(0, i));
-            var key = partition[0];
-            var value = partition[1];
-            if (!info[key]) {
-                info[key] = [];
-                info[key].push(value);
-            } else {
-                info[key].push(value);
-            }
-            data = data.slice(i);
-        }
+var collect = function(key, value) {
+    if (!info[key]) {
+        info[key] = [];
+        info[key].push(value);
+    } else {
+        info[key].push(value);
     }
-});
+};
 
-stdin.on('end', function() {
+var reduceAll = function() {
     Object.keys(info).forEach(function(key) {
         reducer(key, info[key]);
     });
-});
+};
+
+if (Wmr.grouped) {
+    // each group arrives whole, so it can be reduced right away
+    Wmr.readGroups(stdin, reducer, function() {});
+} else if (Wmr.binary) {
+    Wmr.readRecords(stdin, collect, reduceAll);
+} else {
+    stdin.setEncoding('utf8');
+    stdin.resume();
+
+    stdin.on('data', function(chunk) {
+        if (chunk) {
+            data += chunk;
+            data = data.replace(/\r\n/g, '\n');
+
+            while (data.indexOf('\n') > -1) {
+                var i = data.indexOf('\n') + 1;
+                var partition = Wmr.parseInput(data.slice(0, i));
+                collect(partition[0], partition[1]);
+                data = data.slice(i);
+            }
+        }
+    });
+
+    stdin.on('end', reduceAll);
+}
@@ -14,8 +14,34 @@
 
 var default_separator = '\t';
 
+// Whether records are exchanged with WebMapReduce as length-prefixed fields
+// (a 4-byte big-endian length, then that many bytes of UTF-8, for the key and
+// then the value) rather than as lines
+exports.binary = process.env.WMR_BINARY === '1';
+// Whether the reducer's input is instead each key followed by its values, then
+// a length of 0xffffffff to end the group
+exports.grouped = exports.binary && process.env.WMR_GROUPED === '1';
+var GROUP_END = 0xffffffff;
+
+// Records go straight to standard output, so send whatever else the program
+// logs there to standard error, where it can't be mistaken for records
+if (exports.binary) {
+    console.log = console.info = console.error;
+}
+
+var field = function(value) {
+    var bytes = new Buffer(String(value), 'utf8');
+    var length = new Buffer(4);
+    length.writeUInt32BE(bytes.length, 0);
+    return [length, bytes];
+};
+
 exports.emit = function(key, value) {
-    console.log(key + default_separator + value);
+    if (exports.binary) {
+        process.stdout.write(Buffer.concat(field(key).concat(field(value))));
+    } else {
+        console.log(key + default_separator + value);
+    }
 };
 
 exports.parseInput = function(line, separator) {
@@ -26,3 +52,61 @@ exports.parseInput = function(line, separator) {
     }
     return [];
 };
+
+// Calls onField with each length-prefixed field read from the stream, or with
+// null where a group ends, then onEnd once it is exhausted.
+var readFields = function(stream, onField, onEnd) {
+    var data = new Buffer(0);
+    stream.on('data', function(chunk) {
+        data = data.length > 0 ? Buffer.concat([data, chunk]) : chunk;
+        var start = 0;
+        while (data.length - start >= 4) {
+            var length = data.readUInt32BE(start);
+            if (length === GROUP_END) {
+                onField(null);
+                start += 4;
+                continue;
+            }
+            if (data.length - start - 4 < length) {
+                break;
+            }
+            onField(data.toString('utf8', start + 4, start + 4 + length));
+            start += 4 + length;
+        }
+        data = data.slice(start);
+    });
+    stream.on('end', onEnd);
+    stream.resume();
+};
+
+// Calls onRecord with the key and value of each length-prefixed record read
+// from the stream, then onEnd once it is exhausted.
+exports.readRecords = function(stream, onRecord, onEnd) {
+    var key = null;
+    readFields(stream, function(field) {
+        if (key === null) {
+            key = field;
+        } else {
+            onRecord(key, field);
+            key = null;
+        }
+    }, onEnd);
+};
+
+// Calls onGroup with the key and array of values of each group of grouped
+// input read from the stream, then onEnd once it is exhausted.
+exports.readGroups = function(stream, onGroup, onEnd) {
+    var key = null;
+    var values = [];
+    readFields(stream, function(field) {
+        if (key === null) {
+            key = field;
+        } else if (field === null) {
+            onGroup(key, values);
+            key = null;
+            values = [];
+        } else {
+            values.push(field);
+        }
+    }, onEnd);
+};
@@ -14,5 +14,5 @@
 import sys
 from wmr import common
 
-for pair in map(common.parse_input, sys.stdin):
+for pair in common.input_pairs():
     mapper(*pair)
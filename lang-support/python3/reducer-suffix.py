@@ -16,11 +16,18 @@ from operator import itemgetter
 import sys
 from wmr import common
 
-# input comes from STDIN (standard input)
-data = map(common.parse_input, sys.stdin)
-# groupby groups multiple word-count pairs by word,
-# and creates an iterator that returns consecutive keys and their group:
-#   current_word - string containing a word (the key)
-#   group - iterator yielding all ["<current_word>", "<count>"] items
-for current_word, group in groupby(data, itemgetter(0)):
-    reducer(current_word, map(itemgetter(1), group))
+if common.grouped:
+    # input comes from STDIN a group at a time, each key sent once
+    groups = common.read_groups(sys.stdin.buffer)
+else:
+    # input comes from STDIN (standard input)
+    data = common.input_pairs()
+    # groupby groups multiple word-count pairs by word,
+    # and creates an iterator that returns consecutive keys and their group:
+    #   current_word - string containing a word (the key)
+    #   group - iterator yielding all ["<current_word>", "<count>"] items
+    groups = ((current_word, map(itemgetter(1), group))
+              for current_word, group in groupby(data, itemgetter(0)))
+
+for current_word, values in groups:
+    reducer(current_word, values)
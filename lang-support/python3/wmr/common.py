@@ -11,12 +11,83 @@
 # See the License for the specific language governing permissions and
 # limitations under the License.
 
+import os
+import struct
+import sys
+
 separator = '\t'
 
+# Whether records are exchanged with WebMapReduce as length-prefixed fields
+# (a 4-byte big-endian length, then that many bytes of UTF-8, for the key and
+# then the value) rather than as lines
+binary = os.environ.get('WMR_BINARY') == '1'
+# Whether the reducer's input is instead each key followed by its values, then
+# a length of 0xffffffff to end the group
+grouped = binary and os.environ.get('WMR_GROUPED') == '1'
+_length = struct.Struct('>I')
+_group_end = 0xffffffff
+
+if binary:
+    # Records go straight to standard output, so send whatever else the
+    # program prints there to standard error, where it can't be mistaken for
+    # records
+    _records = sys.stdout.buffer
+    sys.stdout = sys.stderr
+
 class Wmr:
     @classmethod
     def emit(cls, key, value):
-        print('%s%s%s' % (key, separator, value))
+        if binary:
+            write_record(str(key), str(value))
+        else:
+            print('%s%s%s' % (key, separator, value))
 
 def parse_input(line, separator='\t'):
     return line.rstrip('\n').partition(separator)[::2]
+
+def read_records(stream):
+    read = stream.read
+    while True:
+        header = read(4)
+        if len(header) < 4:
+            return
+        key = read(_length.unpack(header)[0])
+        header = read(4)
+        if len(header) < 4:
+            return
+        value = read(_length.unpack(header)[0])
+        yield key.decode('utf-8'), value.decode('utf-8')
+
+def read_groups(stream):
+    read = stream.read
+    while True:
+        header = read(4)
+        if len(header) < 4:
+            return
+        key = read(_length.unpack(header)[0]).decode('utf-8')
+        values = _read_group_values(read)
+        yield key, values
+        # Skip whatever values the reducer did not use
+        for value in values:
+            pass
+
+def _read_group_values(read):
+    while True:
+        header = read(4)
+        if len(header) < 4:
+            return
+        length = _length.unpack(header)[0]
+        if length == _group_end:
+            return
+        yield read(length).decode('utf-8')
+
+def write_record(key, value):
+    key = key.encode('utf-8')
+    value = value.encode('utf-8')
+    _records.write(_length.pack(len(key)) + key +
+                   _length.pack(len(value)) + value)
+
+def input_pairs():
+    if binary:
+        return read_records(sys.stdin.buffer)
+    return map(parse_input, sys.stdin)
@@ -0,0 +1,237 @@
+# Copyright 2010 WebMapReduce Developers
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#	http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+# Runs test job transforms for the WebMapReduce server without starting a new
+# interpreter for each one. The server sends requests on standard input, each
+# a header line
+#
+#   <script>\t<working-dir>\t<timeout-ms>\t<output-limit>\t<error-limit>\t
+#   <input-length>\n
+#
+# (all on one line) followed by the transform's input. Each transform runs in
+# a forked child, in a fresh copy of the working directory and in its own
+# process group, which is killed once the child exits. The reply is the
+# transform's output and errors as they are produced, in chunks each made of a
+# header line
+#
+#   <stream>\t<length>\n
+#
+# where <stream> is 1 for standard output and 2 for standard error, followed by
+# that many bytes. At most <output-limit> bytes of output and <error-limit>
+# bytes of errors are sent, or all of them if the limit is negative; the rest
+# are discarded. The reply ends with the line
+#
+#   0\t<exit-code>\n
+
+import os
+import runpy
+import select
+import shutil
+import signal
+import sys
+import tempfile
+import time
+import traceback
+
+# Modules commonly used by transforms, imported once here instead of in every
+# child
+import itertools
+import operator
+
+# How long to keep reading output left behind by a transform's background
+# processes once it has exited and they have been killed, in seconds
+DRAIN_GRACE = 1.0
+
+# The most bytes to read from a transform, or send to the server, at once
+CHUNK_SIZE = 65536
+
+# The transform running, if any, to kill if the server destroys this worker
+child = None
+
+
+def reset(sandbox):
+    for name in os.listdir(sandbox):
+        path = os.path.join(sandbox, name)
+        if os.path.isdir(path) and not os.path.islink(path):
+            shutil.rmtree(path)
+        else:
+            os.remove(path)
+
+
+def run_child(script, work, input_path, stdout, stderr):
+    os.setpgid(0, 0)
+    os.chdir(work)
+
+    stdin = os.open(input_path, os.O_RDONLY)
+    os.dup2(stdin, 0)
+    os.dup2(stdout, 1)
+    os.dup2(stderr, 2)
+    for fd in (stdin, stdout, stderr):
+        os.close(fd)
+    sys.stdin = open(0, 'r', closefd=False)
+    sys.stdout = open(1, 'w', closefd=False)
+    sys.stderr = open(2, 'w', closefd=False)
+
+    script = os.path.abspath(script)
+    sys.argv = [script]
+    sys.path[0] = os.path.dirname(script)
+
+    code = 0
+    try:
+        runpy.run_path(script, run_name='__main__')
+    except SystemExit as ex:
+        if ex.code is None:
+            code = 0
+        elif isinstance(ex.code, int):
+            code = ex.code
+        else:
+            print(ex.code, file=sys.stderr)
+            code = 1
+    except BaseException:
+        traceback.print_exc()
+        code = 1
+    finally:
+        try:
+            sys.stdout.flush()
+            sys.stderr.flush()
+        finally:
+            os._exit(code & 0xff)
+
+
+def kill_group(pid):
+    try:
+        os.killpg(pid, signal.SIGKILL)
+    except OSError:
+        # The group is already gone
+        pass
+
+
+def exited(pid):
+    """Determines whether the child has exited, without reaping it, so that
+    its process group can't be reused before it is killed."""
+    result = os.waitid(os.P_PID, pid,
+                       os.WEXITED | os.WNOHANG | os.WNOWAIT)
+    return result is not None and result.si_pid == pid
+
+
+def run(pid, streams, limits, timeout, replies):
+    """Relays the child's output and errors as they are produced until it
+    exits or times out, then kills anything it left running and returns its
+    exit code."""
+    deadline = time.time() + timeout / 1000.0
+    drain_deadline = None
+    while streams:
+        if drain_deadline is None:
+            if exited(pid) or time.time() >= deadline:
+                # Kill the transform (if it timed out) and anything it started
+                kill_group(pid)
+                drain_deadline = time.time() + DRAIN_GRACE
+        elif time.time() >= drain_deadline:
+            # Something escaped the process group and still holds the pipes
+            break
+
+        ready, _, _ = select.select(list(streams), [], [], 0.005)
+        for fd in ready:
+            data = os.read(fd, CHUNK_SIZE)
+            stream = streams[fd]
+            if not data:
+                os.close(fd)
+                del streams[fd]
+                continue
+
+            limit = limits[stream]
+            if limit >= 0:
+                data = data[:limit]
+                limits[stream] = limit - len(data)
+            if data:
+                replies.write(('%d\t%d\n' % (stream, len(data))).encode('utf-8'))
+                replies.write(data)
+        replies.flush()
+
+    for fd in streams:
+        os.close(fd)
+    # The child may have closed its output and still be running
+    while drain_deadline is None and not exited(pid) and time.time() < deadline:
+        time.sleep(0.005)
+    kill_group(pid)
+    _, status = os.waitpid(pid, 0)
+
+    if os.WIFSIGNALED(status):
+        return 128 + os.WTERMSIG(status)
+    return os.WEXITSTATUS(status)
+
+
+def terminate(signum, frame):
+    if child is not None:
+        kill_group(child)
+    # Still clean up the sandbox
+    sys.exit(128 + signum)
+
+
+def main():
+    global child
+    signal.signal(signal.SIGTERM, terminate)
+    requests = sys.stdin.buffer
+    replies = sys.stdout.buffer
+    sandbox = tempfile.mkdtemp(prefix='wmr-worker-')
+    try:
+        while True:
+            header = requests.readline()
+            if not header:
+                break
+            script, workdir, timeout, output_limit, error_limit, length = \
+                header.decode('utf-8').rstrip('\n').split('\t')
+
+            reset(sandbox)
+            work = os.path.join(sandbox, 'work')
+            shutil.copytree(workdir, work, symlinks=True)
+            input_path = os.path.join(sandbox, 'input')
+
+            remaining = int(length)
+            with open(input_path, 'wb') as f:
+                while remaining > 0:
+                    data = requests.read(min(remaining, 65536))
+                    if not data:
+                        return
+                    f.write(data)
+                    remaining -= len(data)
+
+            output_read, output_write = os.pipe()
+            error_read, error_write = os.pipe()
+            pid = os.fork()
+            if pid == 0:
+                signal.signal(signal.SIGTERM, signal.SIG_DFL)
+                os.close(output_read)
+                os.close(error_read)
+                run_child(script, work, input_path, output_write, error_write)
+            child = pid
+            try:
+                # As the child does, so that the group exists either way
+                os.setpgid(pid, pid)
+            except OSError:
+                pass
+            os.close(output_write)
+            os.close(error_write)
+
+            code = run(pid, {output_read: 1, error_read: 2},
+                       {1: int(output_limit), 2: int(error_limit)},
+                       int(timeout), replies)
+            child = None
+            replies.write(('0\t%d\n' % code).encode('utf-8'))
+            replies.flush()
+    finally:
+        shutil.rmtree(sandbox, ignore_errors=True)
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.stolaf.cs.wmrserver;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobClient;
+import org.apache.hadoop.mapred.JobConf;
+
+
+/**
+ * Holds the Hadoop configuration and connections shared by the whole server.
+ * The configuration is parsed once, at startup, and the JobTracker connection
+ * is kept open and reconnected if it stops responding. The connection is
+ * checked in the background, so that a hung JobTracker holds up only the
+ * calls actually made to it.
+ */
+public class HadoopClients
+{
+	/** The parsed Hadoop configuration. Must not be modified. */
+	private JobConf _conf;
+	/** The shared JobTracker client, or null if it must be reconnected. */
+	private AtomicReference<JobClient> _jobClient;
+	private ScheduledExecutorService _checker;
+
+
+	public HadoopClients(Configuration conf)
+	{
+		_conf = new JobConf(conf);
+		// Parse now, so that copies share the parsed properties
+		_conf.size();
+		_jobClient = new AtomicReference<JobClient>();
+		
+		long checkInterval =
+			conf.getLong("wmr.hadoop.client.check.interval", 30000);
+		_checker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "hadoop-client-checker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		_checker.scheduleWithFixedDelay(new Runnable() {
+			public void run()
+			{
+				checkJobClient();
+			}
+		}, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the shared configuration, which must not be modified.
+	 */
+	public Configuration getConf()
+	{
+		return _conf;
+	}
+
+	/**
+	 * Creates a job configuration with the shared configuration's settings,
+	 * without reading any configuration files again.
+	 */
+	public JobConf newJobConf()
+	{
+		return new JobConf(_conf);
+	}
+
+	public FileSystem getFileSystem(Path path) throws IOException
+	{
+		return path.getFileSystem(_conf);
+	}
+
+	public FileSystem getLocalFileSystem() throws IOException
+	{
+		return FileSystem.getLocal(_conf);
+	}
+
+	/**
+	 * Gets the shared JobTracker client, connecting (or reconnecting) first if
+	 * necessary.
+	 */
+	public JobClient getJobClient() throws IOException
+	{
+		JobClient client = _jobClient.get();
+		if (client != null)
+			return client;
+		
+		// If another thread connects first, use its client instead
+		client = new JobClient(_conf);
+		if (_jobClient.compareAndSet(null, client))
+			return client;
+		close(client);
+		return getJobClient();
+	}
+
+	/**
+	 * Discards the given JobTracker client after it has failed, so that the
+	 * next call to {@link #getJobClient()} reconnects.
+	 */
+	public void invalidate(JobClient client)
+	{
+		if (_jobClient.compareAndSet(client, null))
+			close(client);
+	}
+
+	/**
+	 * Discards the shared JobTracker client if it no longer responds.
+	 */
+	private void checkJobClient()
+	{
+		JobClient client = _jobClient.get();
+		if (client == null)
+			return;
+		
+		try
+		{
+			client.getClusterStatus();
+		}
+		catch (Exception ex)
+		{
+			// Including runtime exceptions, which would end the checks
+			invalidate(client);
+		}
+	}
+
+	private static void close(JobClient client)
+	{
+		try
+		{
+			client.close();
+		}
+		catch (IOException ex)
+		{
+		}
+	}
+}
@@ -17,16 +17,18 @@ package edu.stolaf.cs.wmrserver;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
-import java.net.URL;
-import java.net.MalformedURLException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.regex.Pattern;
 import java.lang.reflect.Method;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -36,6 +38,11 @@ import org.apache.hadoop.mapred.*;
 import org.apache.hadoop.mapred.lib.KeyFieldBasedPartitioner;
 import org.apache.hadoop.mapred.lib.KeyFieldBasedComparator;
 import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
 
 import edu.stolaf.cs.wmrserver.db.Submission;
 import edu.stolaf.cs.wmrserver.db.SubmissionDatabase;
@@ -64,11 +71,118 @@ public class HadoopEngine implements JobEngine
 	 * test job output, etc.
 	 */
 	private File _tempDir;
+	/**
+	 * The feed to which job statuses are published as they are retrieved.
+	 */
+	private StatusFeed _statusFeed;
 	
-	public HadoopEngine(Configuration conf) throws IOException
+	/**
+	 * The shared Hadoop configuration and JobTracker connection.
+	 */
+	private HadoopClients _clients;
+	/**
+	 * The latest status of each job which has been asked about, refreshed in
+	 * the background while the job is active.
+	 */
+	private ConcurrentHashMap<Long, CachedStatus> _statusCache;
+	/**
+	 * The jobs which have not yet finished, and so must be polled.
+	 */
+	private ConcurrentHashMap<Long, Submission> _activeJobs;
+	/**
+	 * How far through each active job's task completion events we have read.
+	 */
+	private ConcurrentHashMap<Long, EventCursor> _eventCursors;
+	/**
+	 * The number of milliseconds a finished job's status is kept in the cache
+	 * after it was last read.
+	 */
+	private long _statusRetention;
+	/**
+	 * The number of output records each streaming task may read ahead of
+	 * collecting them.
+	 */
+	private int _outputQueueDepth;
+	/**
+	 * The most bytes a length-prefixed record from a streaming task's command
+	 * may have.
+	 */
+	private int _maxRecordSize;
+	private ScheduledExecutorService _poller;
+	/**
+	 * Retrieves the logs of failed task attempts in the background.
+	 */
+	private TaskLogFetcher _logFetcher;
+	/**
+	 * The information about recently queried jobs, by Hadoop job ID, evicting
+	 * the least recently used.
+	 */
+	private LinkedHashMap<String, JobInfo> _infoCache;
+	/**
+	 * The language configuration, which says which languages' libraries can
+	 * exchange length-prefixed records with the streaming tasks.
+	 */
+	private HierarchicalConfiguration _languageConf;
+	
+	public HadoopEngine(Configuration conf, HadoopClients clients,
+			StatusFeed statusFeed, HierarchicalConfiguration languageConf)
+		throws IOException
 	{
 		_homeDir = JobServiceHandler.getHome(conf);
 		_tempDir = JobServiceHandler.getTempDir(conf);
+		_clients = clients;
+		_statusFeed = statusFeed;
+		_languageConf = languageConf;
+		
+		_statusCache = new ConcurrentHashMap<Long, CachedStatus>();
+		_activeJobs = new ConcurrentHashMap<Long, Submission>();
+		_eventCursors = new ConcurrentHashMap<Long, EventCursor>();
+		_statusRetention = conf.getLong("wmr.hadoop.status.retention", 600000);
+		_outputQueueDepth = conf.getInt("wmr.hadoop.output.queue.depth", 0);
+		_maxRecordSize = conf.getInt("wmr.hadoop.record.max",
+				StreamJob.DEFAULT_MAX_RECORD_SIZE);
+		_logFetcher = new TaskLogFetcher(conf);
+		
+		final int infoCacheSize = conf.getInt("wmr.hadoop.info.cache.size", 256);
+		_infoCache = new LinkedHashMap<String, JobInfo>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<String, JobInfo> eldest)
+			{
+				return size() > infoCacheSize;
+			}
+		};
+		
+		long pollInterval = conf.getLong("wmr.hadoop.poll.interval", 2000);
+		_poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "hadoop-status-poller");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		_poller.scheduleWithFixedDelay(new Runnable() {
+			public void run()
+			{
+				pollActiveJobs();
+			}
+		}, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Determines whether a language's library supports length-prefixed
+	 * records, as declared by the "binary" directive in the language
+	 * configuration.
+	 */
+	private boolean isBinaryLanguage(String language)
+	{
+		try
+		{
+			return _languageConf.configurationAt(language).getBoolean("binary", false);
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return false;
+		}
 	}
 	
 	public void submit(JobRequest request, long submissionID, File mapperFile,
@@ -81,7 +195,7 @@ public class HadoopEngine implements JobEngine
 		Path outputPath;
 		try
 		{
-			FileSystem fs = outputDir.getFileSystem(new Configuration());
+			FileSystem fs = _clients.getFileSystem(outputDir);
 			outputPath = JobServiceHandler.getNonexistantPath(
 					outputDir, request.getName(), fs);
 		}
@@ -90,7 +204,7 @@ public class HadoopEngine implements JobEngine
 			throw JobServiceHandler.wrapException("Could not construct output path.", ex);
 		}
 		
-		JobConf conf = new JobConf();
+		JobConf conf = _clients.newJobConf();
 		conf.setJobName(request.getName());
 		
 		// Set mapper and number of tasks if specified
@@ -103,6 +217,16 @@ public class HadoopEngine implements JobEngine
 		if (request.isSetReduceTasks())
 			conf.setNumReduceTasks(request.getReduceTasks());
 		
+		// Pass records as length-prefixed fields if the language's library
+		// can read and write them, so keys and values need not be scanned for
+		// separators and may contain tabs and newlines. Such libraries also
+		// take the reducer's input a group at a time, each key sent once.
+		boolean binary = isBinaryLanguage(request.getLanguage());
+		StreamJob.setBinaryRecords(conf, binary);
+		StreamJob.setGroupedReduceInput(conf, binary);
+		StreamJob.setMaxRecordSize(conf, _maxRecordSize);
+		StreamJob.setOutputQueueDepth(conf, _outputQueueDepth);
+		
 		// Create and set job JAR, including necessary files
 		ArrayList<String> jarFiles = new ArrayList<String>();
 		jarFiles.add(packageDir.toString());
@@ -150,13 +274,14 @@ public class HadoopEngine implements JobEngine
 		// Attempt to submit the job
 		
 		RunningJob job;
+		JobClient client = getClient();
 		try
 		{
-			JobClient client = new JobClient(new JobConf());
 			job = client.submitJob(conf);
 		}
 		catch (IOException ex)
 		{
+			_clients.invalidate(client);
 			throw JobServiceHandler.wrapException(
 				"There was a serious error while attempting to submit the job.",
 				ex);
@@ -172,16 +297,19 @@ public class HadoopEngine implements JobEngine
 			throw JobServiceHandler.wrapException(
 					"Could not update submission in database.", ex);
 		}
+		
+		// Record the job information now, while the configuration is at hand
+		storeJobInfo(submissionID,
+				getInfo(job.getID().toString(), request.getName(), conf));
 	}
 
-	public JobInfo getInfo(Submission submission, RunningJob job, JobConf conf) throws NotFoundException,
-			InternalException
+	public JobInfo getInfo(String hadoopID, String jobName, JobConf conf)
 	{
 		
 		JobInfo info = new JobInfo();
 		
-		info.setNativeID(submission.getHadoopID());
-		info.setName(job.getJobName());
+		info.setNativeID(hadoopID);
+		info.setName(jobName);
 		info.setTest(false);
 		
 		if (conf == null)
@@ -203,6 +331,88 @@ public class HadoopEngine implements JobEngine
 		return info;
 	}
 	
+	/**
+	 * Gets the information about a Hadoop job, which does not change while the
+	 * job runs. This is recorded when the job is submitted; for jobs submitted
+	 * before that was done, it is read from the job's configuration on the DFS
+	 * and recorded then.
+	 */
+	private JobInfo getJobInfo(Submission submission, RunningJob job)
+		throws InternalException
+	{
+		String hadoopID = submission.getHadoopID();
+		JobInfo info;
+		synchronized (_infoCache)
+		{
+			info = _infoCache.get(hadoopID);
+		}
+		
+		if (info == null)
+		{
+			info = loadJobInfo(submission);
+			if (info == null)
+			{
+				info = getInfo(hadoopID, job.getJobName(),
+						loadJobConfiguration(job));
+				storeJobInfo(submission.getID(), info);
+			}
+			
+			synchronized (_infoCache)
+			{
+				_infoCache.put(hadoopID, info);
+			}
+		}
+		
+		return info.deepCopy();
+	}
+	
+	private void storeJobInfo(long submissionID, JobInfo info)
+	{
+		try
+		{
+			SubmissionDatabase.setInfo(submissionID, toBytes(info));
+		}
+		catch (Exception ex)
+		{
+			// Not fatal; the job configuration can be read instead
+		}
+	}
+	
+	private JobInfo loadJobInfo(Submission submission)
+		throws InternalException
+	{
+		JobInfo info = new JobInfo();
+		try
+		{
+			byte[] data = SubmissionDatabase.findInfo(submission.getID());
+			if (data == null)
+				return null;
+			fromBytes(info, data);
+		}
+		catch (SQLException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Could not retrieve job information from database.", ex);
+		}
+		catch (TException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Stored job information was corrupt.", ex);
+		}
+		return info;
+	}
+	
+	private static byte[] toBytes(TBase<?, ?> struct) throws TException
+	{
+		return new TSerializer(new TCompactProtocol.Factory()).serialize(struct);
+	}
+	
+	private static void fromBytes(TBase<?, ?> struct, byte[] data)
+		throws TException
+	{
+		new TDeserializer(new TCompactProtocol.Factory()).deserialize(struct, data);
+	}
+	
 	private static class TaskLog
 	{
 		private String trackerHttp;
@@ -222,15 +432,35 @@ public class HadoopEngine implements JobEngine
 				"&attemptid=" + attemptID.toString() + 
 				"&filter=" + filter;
 		}
+	}
+	
+	/**
+	 * A status snapshot in the cache. The snapshot itself is never modified;
+	 * readers get copies of it.
+	 */
+	private static class CachedStatus
+	{
+		public final JobStatus status;
+		public volatile long lastRead;
 		
-		public String fetch(boolean error)
-			throws MalformedURLException, IOException
+		public CachedStatus(JobStatus status)
 		{
-			InputStream logStream = new URL(getURL(error)).openStream();
-			return IOUtils.toString(logStream);
+			this.status = status;
+			this.lastRead = System.currentTimeMillis();
 		}
 	}
 	
+	/**
+	 * The failures found in the task completion events of a job so far, and
+	 * the index of the first event not yet read.
+	 */
+	private static class EventCursor
+	{
+		public int nextEvent = 0;
+		public ArrayList<TaskLog> mapFailures = new ArrayList<TaskLog>();
+		public ArrayList<TaskLog> reduceFailures = new ArrayList<TaskLog>();
+	}
+	
 	private static class Pair<T1, T2>
 	{
 		public T1 first;
@@ -246,16 +476,172 @@ public class HadoopEngine implements JobEngine
 	public JobStatus getStatus(Submission submission)
 			throws NotFoundException, InternalException
 	{
-		RunningJob job = getJob(submission);
-		JobConf conf = loadJobConfiguration(job);
+		CachedStatus cached = _statusCache.get(submission.getID());
+		if (cached != null)
+		{
+			cached.lastRead = System.currentTimeMillis();
+			// The feed may have forgotten the job since it was cached
+			JobStatus status = cached.status.deepCopy();
+			status.setVersion(_statusFeed.publish(submission.getID(), status));
+			return status;
+		}
+		
+		// Finished jobs have their final status stored
+		if (submission.isCompleted())
+		{
+			JobStatus status = loadFinalStatus(submission);
+			if (status != null)
+				return status;
+		}
 		
+		// Not seen before, so ask Hadoop now; the poller takes it from here
+		return refreshStatus(submission).deepCopy();
+	}
+	
+	public List<StatusResult> getStatuses(List<Submission> submissions)
+			throws InternalException
+	{
+		List<StatusResult> results = new ArrayList<StatusResult>(submissions.size());
+		for (Submission submission : submissions)
+		{
+			StatusResult result = new StatusResult();
+			result.setId(submission.getID());
+			try
+			{
+				result.setStatus(getStatus(submission));
+			}
+			catch (NotFoundException ex)
+			{
+				result.setNotFound(ex);
+			}
+			catch (InternalException ex)
+			{
+				result.setError(ex);
+			}
+			results.add(result);
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Retrieves a job's status from Hadoop and caches it, keeping the job on
+	 * the poller's list until it finishes.
+	 */
+	private JobStatus refreshStatus(Submission submission)
+			throws NotFoundException, InternalException
+	{
+		JobStatus status = getStatus(getClient(), submission);
+		_statusCache.put(submission.getID(), new CachedStatus(status.deepCopy()));
+		
+		// Keep polling finished jobs until their failure logs are in, so the
+		// final status includes them
+		if (StatusFeed.isFinal(status.getState()) &&
+		    !_logFetcher.isFetching(submission.getHadoopID()))
+		{
+			_activeJobs.remove(submission.getID());
+			_eventCursors.remove(submission.getID());
+			if (!submission.isCompleted())
+				storeFinalStatus(submission, status);
+		}
+		else
+		{
+			_activeJobs.put(submission.getID(), submission);
+		}
+		
+		return status;
+	}
+	
+	/**
+	 * Records a finished job's status in the database, so that later requests
+	 * for it need not go to Hadoop (which eventually forgets the job).
+	 */
+	private void storeFinalStatus(Submission submission, JobStatus status)
+	{
+		JobStatus finalStatus = status.deepCopy();
+		finalStatus.unsetVersion();
+		try
+		{
+			SubmissionDatabase.setCompleted(submission.getID(),
+					finalStatus.getState().name(), toBytes(finalStatus));
+		}
+		catch (Exception ex)
+		{
+			// Not fatal; the status will be stored when next retrieved
+		}
+	}
+	
+	private JobStatus loadFinalStatus(Submission submission)
+		throws InternalException
+	{
 		JobStatus status = new JobStatus();
-		status.setInfo(getInfo(submission, job, conf));
+		try
+		{
+			byte[] data = SubmissionDatabase.findStatus(submission.getID());
+			if (data == null)
+				return null;
+			fromBytes(status, data);
+		}
+		catch (SQLException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Could not retrieve job status from database.", ex);
+		}
+		catch (TException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Stored job status was corrupt.", ex);
+		}
+		
+		status.setVersion(_statusFeed.publish(submission.getID(), status));
+		_statusCache.put(submission.getID(), new CachedStatus(status.deepCopy()));
+		return status;
+	}
+	
+	private void pollActiveJobs()
+	{
+		for (Submission submission : _activeJobs.values())
+		{
+			try
+			{
+				refreshStatus(submission);
+			}
+			catch (NotFoundException ex)
+			{
+				// The JobTracker has forgotten the job; stop asking
+				_activeJobs.remove(submission.getID());
+				_eventCursors.remove(submission.getID());
+				_statusCache.remove(submission.getID());
+			}
+			catch (Exception ex)
+			{
+				// Try again next time around
+			}
+		}
+		
+		// Forget finished jobs which nobody has asked about lately
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<Long, CachedStatus>> it =
+			_statusCache.entrySet().iterator();
+		while (it.hasNext())
+		{
+			Map.Entry<Long, CachedStatus> entry = it.next();
+			if (!_activeJobs.containsKey(entry.getKey()) &&
+			    now - entry.getValue().lastRead > _statusRetention)
+				it.remove();
+		}
+	}
+	
+	private JobStatus getStatus(JobClient client, Submission submission)
+			throws NotFoundException, InternalException
+	{
+		RunningJob job = getJob(client, submission);
+		
+		JobStatus status = new JobStatus();
+		status.setInfo(getJobInfo(submission, job));
 		
 		try
 		{
-			JobClient client = new JobClient(new JobConf());
-			
 			// Get job state
 			// Thanks to the mentally handicapped switch statement, we have
 			// to use a chain of ifs. Fuck Java.
@@ -276,12 +662,8 @@ public class HadoopEngine implements JobEngine
 			TaskReport[] reduceTaskReports = client.getReduceTaskReports(job.getID());
 			
 			// Get failed task logs
-			TaskCompletionEvent[] events = job.getTaskCompletionEvents(0);
-			Pair<ArrayList<TaskLog>, ArrayList<TaskLog>> failures;
-			if (events != null)
-				failures = getLogsFromCompletionEvents(events);
-			else
-				failures = getLogsFromHistory(job, new Configuration());
+			Pair<ArrayList<TaskLog>, ArrayList<TaskLog>> failures =
+				getFailedTaskLogs(submission, job);
 			ArrayList<TaskLog> mapFailures = failures.first;
 			ArrayList<TaskLog> reduceFailures = failures.second;
 			
@@ -304,9 +686,9 @@ public class HadoopEngine implements JobEngine
 			reduceStatus.setState(status.getState());
 			if (reduceTaskReports != null)
 				reduceStatus.setTotalTasks(reduceTaskReports.length);
-			if (conf != null)
-				reduceStatus.setOutputPath(
-						FileOutputFormat.getOutputPath(conf).toString());
+			if (status.getInfo().isSetOutputPath())
+				reduceStatus.setOutputPath(new Path(_homeDir,
+						status.getInfo().getOutputPath()).toString());
 			status.setReduceStatus(reduceStatus);
 		}
 		catch (Exception ex)
@@ -314,9 +696,54 @@ public class HadoopEngine implements JobEngine
 			throw JobServiceHandler.wrapException("Could not get job info.", ex);
 		}
 		
+		status.setVersion(_statusFeed.publish(submission.getID(), status));
 		return status;
 	}
 	
+	/**
+	 * Finds the logs of all failed task attempts of a job. Only the completion
+	 * events which arrived since the last call are fetched from Hadoop.
+	 */
+	private Pair<ArrayList<TaskLog>, ArrayList<TaskLog>>
+		getFailedTaskLogs(Submission submission, RunningJob job)
+		throws IOException, InternalException
+	{
+		EventCursor cursor = _eventCursors.get(submission.getID());
+		if (cursor == null)
+		{
+			cursor = new EventCursor();
+			EventCursor existing =
+				_eventCursors.putIfAbsent(submission.getID(), cursor);
+			if (existing != null)
+				cursor = existing;
+		}
+		
+		synchronized (cursor)
+		{
+			// Hadoop returns only a few events per call, so keep asking until
+			// we're caught up
+			while (true)
+			{
+				TaskCompletionEvent[] events =
+					job.getTaskCompletionEvents(cursor.nextEvent);
+				if (events == null && cursor.nextEvent == 0)
+					return getLogsFromHistory(job, _clients.getConf());
+				if (events == null || events.length == 0)
+					break;
+				
+				Pair<ArrayList<TaskLog>, ArrayList<TaskLog>> failures =
+					getLogsFromCompletionEvents(events);
+				cursor.mapFailures.addAll(failures.first);
+				cursor.reduceFailures.addAll(failures.second);
+				cursor.nextEvent += events.length;
+			}
+			
+			return new Pair<ArrayList<TaskLog>, ArrayList<TaskLog>>(
+				new ArrayList<TaskLog>(cursor.mapFailures),
+				new ArrayList<TaskLog>(cursor.reduceFailures));
+		}
+	}
+	
 	private Pair<ArrayList<TaskLog>, ArrayList<TaskLog>>
 		getLogsFromCompletionEvents(TaskCompletionEvent[] events)
 	{
@@ -426,7 +853,7 @@ public class HadoopEngine implements JobEngine
 	public void kill(Submission submission) throws NotFoundException,
 			IllegalJobStateException, InternalException
 	{
-		RunningJob job = getJob(submission);
+		RunningJob job = getJob(getClient(), submission);
 		
 		// Attempt to kill job
 		try
@@ -441,9 +868,27 @@ public class HadoopEngine implements JobEngine
 		{
 			throw JobServiceHandler.wrapException("Job could not be killed.", ex);
 		}
+		
+		// Don't serve the pre-kill status from the cache
+		_statusCache.remove(submission.getID());
+		_statusFeed.invalidate(submission.getID());
+	}
+	
+	private JobClient getClient() throws InternalException
+	{
+		try
+		{
+			return _clients.getJobClient();
+		}
+		catch (IOException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Could not connect to the JobTracker.", ex);
+		}
 	}
 	
-	private RunningJob getJob(Submission submission) throws NotFoundException, InternalException
+	private RunningJob getJob(JobClient client, Submission submission)
+		throws NotFoundException, InternalException
 	{
 		if (!submission.isSubmitted())
 			throw new NotFoundException(
@@ -462,11 +907,11 @@ public class HadoopEngine implements JobEngine
 		RunningJob job;
 		try
 		{
-			JobClient client = new JobClient(new JobConf());
 			job = client.getJob(requestedID);
 		}
 		catch (Exception ex)
 		{
+			_clients.invalidate(client);
 			throw JobServiceHandler.wrapException("Could not get Hadoop job.", ex);
 		}
 		
@@ -482,9 +927,9 @@ public class HadoopEngine implements JobEngine
 		// Try normal job file
 		try
 		{
-			JobConf conf = new JobConf();
+			JobConf conf = _clients.newJobConf();
 			Path jobFile = new Path(job.getJobFile());
-			FileSystem fs = jobFile.getFileSystem(new Configuration());
+			FileSystem fs = _clients.getFileSystem(jobFile);
 			conf.addResource(fs.open(jobFile));
 			
 			return conf;
@@ -547,7 +992,9 @@ public class HadoopEngine implements JobEngine
 	
 	/**
 	 * Attempts to retrieve the first "meaningful" task log from the set given.
-	 * Currently returns the first non-blank log.
+	 * Currently returns the first non-blank log which has already been
+	 * retrieved; logs which haven't been are requested from the log fetcher,
+	 * and will be considered by later calls.
 	 * 
 	 * @param events  The set of task logs.
 	 * @return A complete task attempt log
@@ -557,19 +1004,13 @@ public class HadoopEngine implements JobEngine
 		// Find first non-blank log
 		for (TaskLog log : logs)
 		{
-			try
-			{
-				String logContents = log.fetch(true);
-				if (!StringUtils.isBlank(logContents))
-					return logContents;
-			}
-			catch (Exception ex)
-			{
-				return "[Error retrieving task log at " + log.getURL(true) + "]";
-			}
+			String logContents =
+				_logFetcher.getLog(log.attemptID, log.getURL(true));
+			if (!StringUtils.isBlank(logContents))
+				return logContents;
 		}
 		
-		// No non-blank logs found
+		// No non-blank logs found (yet)
 		return "";
 	}
 }
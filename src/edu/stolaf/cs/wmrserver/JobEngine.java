@@ -16,6 +16,7 @@
 package edu.stolaf.cs.wmrserver;
 
 import java.io.File;
+import java.util.List;
 
 import org.apache.hadoop.fs.Path;
 
@@ -29,11 +30,19 @@ public interface JobEngine
 			File reducerFile, File packageDir, Path inputPath)
 		throws ValidationException, NotFoundException,
 		       CompilationException, InternalException,
-		       ForbiddenTestJobException;
+		       ForbiddenTestJobException, QuotaException;
 	
 	JobStatus getStatus(Submission submission)
 		throws NotFoundException, InternalException;
 	
+	/**
+	 * Gets the status of several submissions at once, in the order given.
+	 * Failures to find or query an individual job are reported in that job's
+	 * result rather than thrown.
+	 */
+	List<StatusResult> getStatuses(List<Submission> submissions)
+		throws InternalException;
+	
 	void kill(Submission submission)
 		throws NotFoundException, IllegalJobStateException, InternalException;
 }
@@ -17,12 +17,17 @@ package edu.stolaf.cs.wmrserver;
 
 import edu.stolaf.cs.wmrserver.db.Submission;
 import edu.stolaf.cs.wmrserver.db.SubmissionDatabase;
+import edu.stolaf.cs.wmrserver.testjob.TransformWorkers;
 import edu.stolaf.cs.wmrserver.thrift.*;
 
 import java.io.*;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalConfiguration;
@@ -86,9 +91,40 @@ public class JobServiceHandler implements JobService.Iface
 	 */
 	private HierarchicalConfiguration _languageConf;
 	
+	/**
+	 * The Hadoop configuration and connections shared by all requests.
+	 */
+	private HadoopClients _hadoopClients;
 	private HadoopEngine _hadoopEngine;
 	private TestJobEngine _testJobEngine;
 	
+	/**
+	 * Limits how many requests may block on Hadoop or on external processes
+	 * (job submission, compilation, status, output and kill calls) at once,
+	 * so that such calls can't take every server thread.
+	 */
+	private Semaphore _engineSlots;
+	/**
+	 * The number of milliseconds to wait for a free engine slot before
+	 * turning a request away.
+	 */
+	private long _engineWaitTimeout;
+	
+	/**
+	 * The latest known job statuses, which status watchers wait on.
+	 */
+	private StatusFeed _statusFeed;
+	/**
+	 * The longest a single status watch may block a server thread, in
+	 * milliseconds.
+	 */
+	private long _maxWatchTimeout;
+	/**
+	 * Limits how many watches may block server threads at once. Watches
+	 * beyond the limit return the current status without waiting.
+	 */
+	private Semaphore _watchSlots;
+	
 	
 	public JobServiceHandler(Configuration conf) throws IOException
 	{
@@ -130,8 +166,18 @@ public class JobServiceHandler implements JobService.Iface
 				"The language configuration could not be loaded.", ex);
 		}
 		
-		_hadoopEngine = new HadoopEngine(conf);
-		_testJobEngine = new TestJobEngine(conf);
+		_statusFeed = new StatusFeed(conf);
+		_maxWatchTimeout = conf.getLong("wmr.status.watch.timeout.max", 30000);
+		_watchSlots = new Semaphore(conf.getInt("wmr.status.watch.max", 32));
+		
+		_hadoopClients = new HadoopClients(conf);
+		_hadoopEngine = new HadoopEngine(conf, _hadoopClients, _statusFeed,
+			_languageConf);
+		_testJobEngine = new TestJobEngine(conf, _statusFeed,
+			new TransformWorkers(conf, _languageConf, _langSupportDir));
+		
+		_engineSlots = new Semaphore(conf.getInt("wmr.engine.calls.max", 16));
+		_engineWaitTimeout = conf.getLong("wmr.engine.wait.timeout", 60000);
 	}
 	
 	
@@ -183,6 +229,24 @@ public class JobServiceHandler implements JobService.Iface
 			throw new QuotaException("You have exceeded your job quota. Please resubmit this job in a few minutes.", _quotaAttempts, _quotaDuration);
 		}
 
+		// Wait for an engine slot before logging the submission, so that a
+		// busy server turns the job away without leaving it in the database
+		acquireEngine();
+		try
+		{
+			return submitLogged(request, inputSpecifier);
+		}
+		finally
+		{
+			_engineSlots.release();
+		}
+	}
+	
+	private long submitLogged(JobRequest request, String inputSpecifier)
+		throws ValidationException, NotFoundException, CompilationException,
+		       InternalException, PermissionException, QuotaException,
+		       ForbiddenTestJobException
+	{
 		// Log submission attempt
 		
 		long submissionID;
@@ -204,7 +268,7 @@ public class JobServiceHandler implements JobService.Iface
 		try
 		{
 			inputPath = resolvePath(inputSpecifier);
-			fs = inputPath.getFileSystem(new Configuration());
+			fs = _hadoopClients.getFileSystem(inputPath);
 			checkPath(fs, inputPath);
 		}
 		catch (IOException ex)
@@ -243,12 +307,8 @@ public class JobServiceHandler implements JobService.Iface
 		
 		// Delegate handling to appropriate job engine
 		
-		if (request.isTest())
-			_testJobEngine.submit(request, submissionID, mapperFile,
-					reducerFile, packageDir, inputPath);
-		else
-			_hadoopEngine.submit(request, submissionID, mapperFile,
-					reducerFile, packageDir, inputPath);
+		getEngine(request.isTest()).submit(request, submissionID, mapperFile,
+				reducerFile, packageDir, inputPath);
 		
 		return submissionID;
 	}
@@ -265,7 +325,7 @@ public class JobServiceHandler implements JobService.Iface
 		FSDataOutputStream saveStream = null;
 		try
 		{
-			FileSystem fs = dataDir.getFileSystem(new Configuration());
+			FileSystem fs = _hadoopClients.getFileSystem(dataDir);
 			inputPath = getNonexistantPath(dataDir, name, fs);
 			
 			String processedData = data.replace("\r\n", "\n");
@@ -294,7 +354,7 @@ public class JobServiceHandler implements JobService.Iface
 		try
 		{
 			Path path = resolvePath(pathString);
-			fs = path.getFileSystem(new Configuration());
+			fs = _hadoopClients.getFileSystem(path);
 			
 			checkPath(fs, path);
 			
@@ -367,15 +427,189 @@ public class JobServiceHandler implements JobService.Iface
 		return ret;
 	}
 
+	public DataPage getOutput(long id, boolean reduce, boolean errors, int page)
+		throws NotFoundException, IllegalJobStateException, InternalException
+	{
+		Submission submission = getSubmission(id);
+		if (!submission.isTest())
+			throw new IllegalJobStateException(
+				"Only test jobs have output to read this way. " +
+				"Read the output of other jobs with readDataPage().");
+		
+		acquireEngine();
+		try
+		{
+			return _testJobEngine.getOutput(submission, reduce, errors, page);
+		}
+		finally
+		{
+			_engineSlots.release();
+		}
+	}
+
 
 	public JobStatus getStatus(long id)
 		throws NotFoundException, InternalException
 	{
 		Submission submission = getSubmission(id);
-		if (submission.isTest())
-			return _testJobEngine.getStatus(submission);
-		else
-			return _hadoopEngine.getStatus(submission);
+		acquireEngine();
+		try
+		{
+			return getEngine(submission.isTest()).getStatus(submission);
+		}
+		finally
+		{
+			_engineSlots.release();
+		}
+	}
+
+	public JobStatus watchStatus(long id, long knownVersion, int timeoutMs)
+		throws NotFoundException, InternalException
+	{
+		// With too many watchers already waiting, answer at once as a plain
+		// status query would, so that watchers can't take every server thread
+		boolean waiting = _watchSlots.tryAcquire();
+		try
+		{
+			long timeout = waiting ?
+				Math.min(Math.max(timeoutMs, 0), _maxWatchTimeout) : 0;
+			return watchStatus(id, knownVersion,
+					System.currentTimeMillis() + timeout);
+		}
+		finally
+		{
+			if (waiting)
+				_watchSlots.release();
+		}
+	}
+
+	private JobStatus watchStatus(long id, long knownVersion, long deadline)
+		throws NotFoundException, InternalException
+	{
+		while (true)
+		{
+			// Refresh the status if it's stale and nobody else is doing so.
+			// The engines publish what they find to the feed.
+			if (_statusFeed.beginRefresh(id))
+			{
+				try
+				{
+					getStatus(id);
+				}
+				finally
+				{
+					_statusFeed.endRefresh(id);
+				}
+			}
+			
+			JobStatus status;
+			try
+			{
+				status = _statusFeed.await(id, knownVersion,
+						deadline - System.currentTimeMillis());
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw wrapException("Interrupted while watching job status.", ex);
+			}
+			
+			// With no status in the feed, waiting longer won't produce one
+			if (status == null)
+				return getStatus(id);
+			if (status.getVersion() != knownVersion ||
+			    System.currentTimeMillis() >= deadline)
+				return status;
+		}
+	}
+
+	public List<StatusResult> getStatuses(List<Long> ids)
+		throws InternalException
+	{
+		Map<Long, StatusResult> results = new HashMap<Long, StatusResult>();
+
+		// Group the known submissions by engine, so that each engine can
+		// answer its whole group with a single connection
+		final List<Submission> hadoopSubmissions = new ArrayList<Submission>();
+		final List<Submission> testSubmissions = new ArrayList<Submission>();
+		for (Long id : ids)
+		{
+			if (results.containsKey(id))
+				continue;
+
+			try
+			{
+				Submission submission = getSubmission(id);
+				if (submission.isTest())
+					testSubmissions.add(submission);
+				else
+					hadoopSubmissions.add(submission);
+				results.put(id, null);
+			}
+			catch (NotFoundException ex)
+			{
+				StatusResult result = new StatusResult();
+				result.setId(id);
+				result.setNotFound(ex);
+				results.put(id, result);
+			}
+		}
+
+		// Query each engine in turn. If one can't be queried, its jobs get
+		// the error, but the other's results are still collected.
+		collectStatuses(_hadoopEngine, hadoopSubmissions, results);
+		collectStatuses(_testJobEngine, testSubmissions, results);
+
+		// Answer in the order asked
+		List<StatusResult> ordered = new ArrayList<StatusResult>(ids.size());
+		for (Long id : ids)
+			ordered.add(results.get(id));
+		return ordered;
+	}
+
+	/**
+	 * Queries one engine for its share of a status batch and records the
+	 * results. If the engine fails as a whole, every job in its share gets the
+	 * error.
+	 */
+	private void collectStatuses(JobEngine engine,
+			List<Submission> submissions, Map<Long, StatusResult> results)
+	{
+		if (submissions.isEmpty())
+			return;
+
+		try
+		{
+			acquireEngine();
+			try
+			{
+				for (StatusResult result : engine.getStatuses(submissions))
+					results.put(result.getId(), result);
+			}
+			finally
+			{
+				_engineSlots.release();
+			}
+		}
+		catch (InternalException ex)
+		{
+			failStatuses(submissions, ex, results);
+		}
+	}
+
+	/**
+	 * Records the same error as the result for each of the given jobs.
+	 */
+	private static void failStatuses(List<Submission> submissions,
+			InternalException error, Map<Long, StatusResult> results)
+	{
+		for (Submission submission : submissions)
+		{
+			StatusResult result = new StatusResult();
+			result.setId(submission.getID());
+			result.setError(error);
+			results.put(submission.getID(), result);
+		}
 	}
 
 
@@ -383,10 +617,44 @@ public class JobServiceHandler implements JobService.Iface
 		throws NotFoundException, IllegalJobStateException, InternalException
 	{
 		Submission submission = getSubmission(id);
-		if (submission.isTest())
-			_testJobEngine.kill(submission);
+		acquireEngine();
+		try
+		{
+			getEngine(submission.isTest()).kill(submission);
+		}
+		finally
+		{
+			_engineSlots.release();
+		}
+	}
+	
+	private JobEngine getEngine(boolean test)
+	{
+		if (test)
+			return _testJobEngine;
 		else
-			_hadoopEngine.kill(submission);
+			return _hadoopEngine;
+	}
+	
+	/**
+	 * Takes an engine slot, waiting at most the engine wait timeout for one to
+	 * free up. Callers must release the slot when their call finishes.
+	 */
+	private void acquireEngine() throws InternalException
+	{
+		try
+		{
+			if (!_engineSlots.tryAcquire(_engineWaitTimeout,
+					TimeUnit.MILLISECONDS))
+				throw new InternalException(
+					"The server is too busy to handle this request. " +
+					"Please try again in a moment.");
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw wrapException("Interrupted while waiting for the server.", ex);
+		}
 	}
 	
 	
@@ -471,7 +739,7 @@ public class JobServiceHandler implements JobService.Iface
 		{
 		        // If we update to Hadoop 1.0, we should use the canonical URI which is definitely unique to each file system. However, the normal one should be, too.
 			if (fs.getUri().equals(
-				    FileSystem.getLocal(new Configuration()).getUri()))
+				    _hadoopClients.getLocalFileSystem().getUri()))
 			{
 				throw new PermissionException(
 					"Not allowed to read from the local file system.");
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.stolaf.cs.wmrserver;
+
+import java.util.concurrent.Semaphore;
+
+import org.apache.thrift.transport.TServerTransport;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+
+/**
+ * Limits the number of client connections open at once. Once the limit is
+ * reached, accepting another connection waits until one is closed, leaving
+ * new clients in the socket's backlog rather than handing them to a server
+ * which cannot take them.
+ */
+public class LimitedServerSocket extends TServerTransport
+{
+	private TServerTransport _transport;
+	private Semaphore _slots;
+	
+	
+	public LimitedServerSocket(TServerTransport transport, int maximumConnections)
+	{
+		_transport = transport;
+		_slots = new Semaphore(maximumConnections);
+	}
+	
+	public void listen() throws TTransportException
+	{
+		_transport.listen();
+	}
+	
+	public void close()
+	{
+		_transport.close();
+	}
+	
+	public void interrupt()
+	{
+		_transport.interrupt();
+	}
+	
+	protected TTransport acceptImpl() throws TTransportException
+	{
+		try
+		{
+			_slots.acquire();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new TTransportException(TTransportException.UNKNOWN,
+					"Interrupted while waiting for a free connection.", ex);
+		}
+		
+		try
+		{
+			return new LimitedTransport(_transport.accept());
+		}
+		catch (TTransportException ex)
+		{
+			_slots.release();
+			throw ex;
+		}
+		catch (RuntimeException ex)
+		{
+			_slots.release();
+			throw ex;
+		}
+	}
+	
+	
+	/**
+	 * An accepted connection, which frees its slot when first closed.
+	 */
+	private class LimitedTransport extends TTransport
+	{
+		private TTransport _transport;
+		private boolean _closed;
+		
+		public LimitedTransport(TTransport transport)
+		{
+			_transport = transport;
+		}
+		
+		public boolean isOpen()
+		{
+			return _transport.isOpen();
+		}
+		
+		public boolean peek()
+		{
+			return _transport.peek();
+		}
+		
+		public void open() throws TTransportException
+		{
+			_transport.open();
+		}
+		
+		public synchronized void close()
+		{
+			_transport.close();
+			if (!_closed)
+			{
+				_closed = true;
+				_slots.release();
+			}
+		}
+		
+		public int read(byte[] buf, int off, int len) throws TTransportException
+		{
+			return _transport.read(buf, off, len);
+		}
+		
+		public void write(byte[] buf, int off, int len) throws TTransportException
+		{
+			_transport.write(buf, off, len);
+		}
+		
+		public void flush() throws TTransportException
+		{
+			_transport.flush();
+		}
+	}
+}
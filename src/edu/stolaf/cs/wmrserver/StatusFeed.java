@@ -0,0 +1,198 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.stolaf.cs.wmrserver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+
+import edu.stolaf.cs.wmrserver.thrift.JobStatus;
+import edu.stolaf.cs.wmrserver.thrift.State;
+
+
+/**
+ * Keeps the latest known status of each job, along with a version number
+ * which changes whenever the status does. Versions are drawn from a single
+ * counter for all jobs, so a job forgotten and later seen again never
+ * repeats a version a watcher already knows. The job engines publish statuses
+ * here as they compute them, and watchers block here until the version they
+ * last saw is out of date.
+ */
+public class StatusFeed
+{
+	private static class Entry
+	{
+		/** The latest status, without a version, or null if none is known. */
+		public JobStatus status;
+		public long version;
+		/** When the status was last refreshed from its engine. */
+		public long refreshed;
+		/** Whether some thread is currently refreshing the status. */
+		public boolean refreshing;
+	}
+
+	/**
+	 * The number of milliseconds after which a job's status is considered
+	 * stale, and may be refreshed from its engine by a watcher.
+	 */
+	private long _refreshInterval;
+	private LinkedHashMap<Long, Entry> _entries;
+	/** The last version given to any status. */
+	private long _version;
+
+
+	public StatusFeed(Configuration conf)
+	{
+		_refreshInterval = conf.getLong("wmr.status.watch.interval", 2000);
+
+		// Forget the least recently used jobs beyond capacity
+		final int capacity = conf.getInt("wmr.status.feed.capacity", 1024);
+		_entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Records the current status of a job, waking any watchers if it differs
+	 * from the previous one.
+	 *
+	 * @return The version of the job's status after publishing.
+	 */
+	public synchronized long publish(long id, JobStatus status)
+	{
+		Entry entry = getEntry(id);
+
+		JobStatus snapshot = status.deepCopy();
+		snapshot.unsetVersion();
+		if (!snapshot.equals(entry.status))
+		{
+			entry.status = snapshot;
+			entry.version = ++_version;
+			notifyAll();
+		}
+		entry.refreshed = System.currentTimeMillis();
+
+		return entry.version;
+	}
+
+	/**
+	 * Marks a job's status as stale, for when an engine knows the job has
+	 * changed but has not computed its new status.
+	 */
+	public synchronized void invalidate(long id)
+	{
+		Entry entry = _entries.get(id);
+		if (entry != null)
+		{
+			entry.refreshed = 0;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Decides whether the caller should refresh a job's status from its
+	 * engine. At most one caller at a time is told to do so, and only once the
+	 * status is stale, so any number of watchers cost the engine a single
+	 * status call per interval. Callers told to refresh must call
+	 * {@link #endRefresh(long)} afterward, whether or not they succeed.
+	 */
+	public synchronized boolean beginRefresh(long id)
+	{
+		Entry entry = getEntry(id);
+		if (!isStale(entry, System.currentTimeMillis()))
+			return false;
+
+		entry.refreshing = true;
+		return true;
+	}
+
+	public synchronized void endRefresh(long id)
+	{
+		Entry entry = getEntry(id);
+		entry.refreshing = false;
+		entry.refreshed = Math.max(entry.refreshed, System.currentTimeMillis());
+		notifyAll();
+	}
+
+	/**
+	 * Waits until the version of a job's status differs from the one given,
+	 * the status becomes stale, or the timeout expires.
+	 *
+	 * @return The latest status of the job with its version set, or null if
+	 *         no status is known.
+	 */
+	public synchronized JobStatus await(long id, long knownVersion, long timeout)
+		throws InterruptedException
+	{
+		long now = System.currentTimeMillis();
+		long deadline = now + timeout;
+		Entry entry = getEntry(id);
+		while (entry.version == knownVersion && !isStale(entry, now) &&
+		       now < deadline)
+		{
+			// Wake up in time to notice the status going stale
+			long wait = deadline - now;
+			if (!entry.refreshing && !isFinal(entry))
+				wait = Math.min(wait, entry.refreshed + _refreshInterval - now);
+			wait(Math.max(wait, 1));
+
+			now = System.currentTimeMillis();
+		}
+
+		if (entry.status == null)
+			return null;
+
+		JobStatus status = entry.status.deepCopy();
+		status.setVersion(entry.version);
+		return status;
+	}
+
+	private Entry getEntry(long id)
+	{
+		Entry entry = _entries.get(id);
+		if (entry == null)
+		{
+			entry = new Entry();
+			_entries.put(id, entry);
+		}
+		return entry;
+	}
+
+	private boolean isStale(Entry entry, long now)
+	{
+		return !entry.refreshing && !isFinal(entry) &&
+			now - entry.refreshed >= _refreshInterval;
+	}
+
+	private static boolean isFinal(Entry entry)
+	{
+		return entry.status != null && isFinal(entry.status.getState());
+	}
+
+	/**
+	 * Determines whether a job has reached a state it will never leave, in
+	 * which case there is no point in refreshing its status.
+	 */
+	public static boolean isFinal(State state)
+	{
+		return state == State.SUCCESSFUL || state == State.FAILED ||
+			state == State.KILLED;
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.stolaf.cs.wmrserver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+
+
+/**
+ * Retrieves task attempt logs from the TaskTrackers in the background, so
+ * that a slow or unresponsive TaskTracker never holds up a status request.
+ * Retrieved logs are cached by attempt ID, since a failed attempt's log never
+ * changes. Logs which could not be retrieved are not cached, but tried again
+ * a limited number of times.
+ */
+public class TaskLogFetcher
+{
+	private ThreadPoolExecutor _executor;
+	/** The connect and read timeouts for a single log, in milliseconds. */
+	private int _timeout;
+	/** The most bytes of a single log to retrieve. */
+	private int _maxSize;
+
+	/** Logs already retrieved, evicting the least recently used. */
+	private LinkedHashMap<TaskAttemptID, String> _logs;
+	/** Attempts whose logs are being retrieved. */
+	private HashSet<TaskAttemptID> _pending;
+	/**
+	 * Attempts whose logs have not been retrieved but were asked for, with
+	 * the number of tries which have failed. Those turned away because too
+	 * many logs were being retrieved have had none.
+	 */
+	private LinkedHashMap<TaskAttemptID, Integer> _unfetched;
+	/** The most times to try retrieving a single log. */
+	private int _maxTries;
+
+
+	public TaskLogFetcher(Configuration conf)
+	{
+		_timeout = conf.getInt("wmr.tasklog.timeout", 5000);
+		_maxSize = conf.getInt("wmr.tasklog.size.max", 0x10000 /* 64 K */);
+		_maxTries = Math.max(conf.getInt("wmr.tasklog.tries", 3), 1);
+
+		int threads = conf.getInt("wmr.tasklog.threads", 4);
+		_executor = new ThreadPoolExecutor(threads, threads,
+				60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(
+						conf.getInt("wmr.tasklog.queue.size", 64)));
+		_executor.allowCoreThreadTimeOut(true);
+
+		final int capacity = conf.getInt("wmr.tasklog.cache.size", 256);
+		_logs = new LinkedHashMap<TaskAttemptID, String>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(
+					Map.Entry<TaskAttemptID, String> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+		_pending = new HashSet<TaskAttemptID>();
+		_unfetched = new LinkedHashMap<TaskAttemptID, Integer>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(
+					Map.Entry<TaskAttemptID, Integer> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the log of a task attempt if it has already been retrieved. If
+	 * not, starts retrieving it and returns null. Once every try has failed,
+	 * returns a note saying so instead.
+	 *
+	 * @param url  The URL from which the log can be retrieved.
+	 */
+	public synchronized String getLog(final TaskAttemptID attemptID,
+			final String url)
+	{
+		String log = _logs.get(attemptID);
+		if (log != null || _pending.contains(attemptID))
+			return log;
+		if (getFailedTries(attemptID) >= _maxTries)
+			return "[Error retrieving task log at " + url + "]";
+
+		try
+		{
+			_executor.execute(new Runnable() {
+				public void run()
+				{
+					try
+					{
+						fetched(attemptID, fetch(url));
+					}
+					catch (Exception ex)
+					{
+						failed(attemptID);
+					}
+				}
+			});
+			_pending.add(attemptID);
+		}
+		catch (RejectedExecutionException ex)
+		{
+			// Too many logs being retrieved; try again next time
+			_unfetched.put(attemptID, getFailedTries(attemptID));
+		}
+		return null;
+	}
+
+	/**
+	 * Determines whether any logs of the given job asked for are still being
+	 * retrieved, or are yet to be tried again.
+	 */
+	public synchronized boolean isFetching(String jobID)
+	{
+		for (TaskAttemptID attemptID : _pending)
+		{
+			if (attemptID.getJobID().toString().equals(jobID))
+				return true;
+		}
+		for (Map.Entry<TaskAttemptID, Integer> entry : _unfetched.entrySet())
+		{
+			if (entry.getValue() < _maxTries &&
+			    entry.getKey().getJobID().toString().equals(jobID))
+				return true;
+		}
+		return false;
+	}
+
+	private int getFailedTries(TaskAttemptID attemptID)
+	{
+		Integer tries = _unfetched.get(attemptID);
+		return (tries != null) ? tries : 0;
+	}
+
+	private synchronized void fetched(TaskAttemptID attemptID, String log)
+	{
+		_pending.remove(attemptID);
+		_unfetched.remove(attemptID);
+		_logs.put(attemptID, log);
+	}
+
+	private synchronized void failed(TaskAttemptID attemptID)
+	{
+		_pending.remove(attemptID);
+		_unfetched.put(attemptID, getFailedTries(attemptID) + 1);
+	}
+
+	private String fetch(String url) throws IOException
+	{
+		URLConnection connection = new URL(url).openConnection();
+		connection.setConnectTimeout(_timeout);
+		connection.setReadTimeout(_timeout);
+
+		InputStream logStream = null;
+		try
+		{
+			// Read one byte past the limit to tell if the log was cut short
+			logStream = connection.getInputStream();
+			byte[] data = IOUtils.toByteArray(
+					new BoundedInputStream(logStream, _maxSize + 1));
+			if (data.length > _maxSize)
+				return new String(data, 0, _maxSize) + "\n[Log truncated]";
+			return new String(data);
+		}
+		finally
+		{
+			IOUtils.closeQuietly(logStream);
+		}
+	}
+}
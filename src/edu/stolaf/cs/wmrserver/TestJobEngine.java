@@ -15,17 +15,21 @@
 
 package edu.stolaf.cs.wmrserver;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.RandomAccessFile;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.FileOutputFormat;
-import org.apache.commons.io.IOUtils;
 
 import edu.stolaf.cs.wmrserver.db.Submission;
 import edu.stolaf.cs.wmrserver.db.SubmissionDatabase;
@@ -35,40 +39,126 @@ import edu.stolaf.cs.wmrserver.testjob.*;
 
 public class TestJobEngine implements JobEngine
 {
-	private static final int POOL_SIZE = 1;
+	/**
+	 * The names of the temporary files test jobs create, which are deleted at
+	 * startup unless a stored result refers to them.
+	 */
+	private static final Pattern TEMP_FILE_PATTERN =
+		Pattern.compile("(job-\\d+-(output|error))|(sort-\\d+-(run|merged))");
 	
 	/**
 	 * A flag which specifies whether running test jobs is permitted.
 	 */
 	private boolean _allowTestJobs;
 	private Configuration _conf;
+	/**
+	 * The feed to which job statuses are published as they are retrieved.
+	 */
+	private StatusFeed _statusFeed;
+	/**
+	 * Interpreters kept running to run transforms, or null if there are none.
+	 */
+	private TransformWorkers _workers;
 	
-	private ExecutorService _jobQueue;
-	private HashMap<Long, Future<TestJobResult>> _jobs;
+	private FairScheduler _scheduler;
+	/**
+	 * The executor on which the mappers and reducers of running test jobs are
+	 * run, shared among jobs.
+	 */
+	private ThreadPoolExecutor _taskExecutor;
+	/**
+	 * The submitted test jobs which have not yet expired. Jobs are only ever
+	 * added and removed here, so status calls never wait on one another.
+	 */
+	private ConcurrentHashMap<Long, TestJob> _jobs;
+	/**
+	 * The IDs of completed jobs, in the order they completed (or were loaded
+	 * from the database), so that the oldest can be expired first.
+	 */
+	private ConcurrentLinkedQueue<Long> _completed;
+	private AtomicInteger _completedCount;
+	/** The number of milliseconds for which completed jobs are kept. */
+	private long _retention;
+	/** The most completed jobs to keep. */
+	private int _maxRetained;
+	/** The size of the pages in which output and errors are read. */
+	private int _pageSize;
 	
-	TestJobEngine(Configuration conf)
+	private static class TestJob
+	{
+		public final FutureTask<TestJobResult> future;
+		/** When the job completed, or 0 if it has not. */
+		public volatile long completed;
+		/**
+		 * The status of the job once it has completed, which is built only
+		 * once since it no longer changes.
+		 */
+		public volatile JobStatus status;
+		
+		public TestJob(FutureTask<TestJobResult> future)
+		{
+			this.future = future;
+		}
+	}
+	
+	TestJobEngine(Configuration conf, StatusFeed statusFeed,
+			TransformWorkers workers)
 	{
 		_conf = conf;
+		_statusFeed = statusFeed;
+		_workers = workers;
 		_allowTestJobs = _conf.getBoolean("wmr.tests.allow", false);
 
-		_jobQueue = Executors.newFixedThreadPool(POOL_SIZE);
-		_jobs = new HashMap<Long, Future<TestJobResult>>();
+		_scheduler = new FairScheduler(_conf.getInt("wmr.tests.threads", 2),
+				_conf.getInt("wmr.tests.queue.user.max", 3));
+		int taskThreads = _conf.getInt("wmr.tests.task.threads", 0);
+		if (taskThreads <= 0)
+			taskThreads = Runtime.getRuntime().availableProcessors();
+		_taskExecutor = new ThreadPoolExecutor(taskThreads, taskThreads,
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private AtomicInteger _count = new AtomicInteger();
+					
+					public Thread newThread(Runnable r)
+					{
+						Thread thread = new Thread(r,
+								"test-job-task-" + _count.getAndIncrement());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		_taskExecutor.allowCoreThreadTimeOut(true);
+		_jobs = new ConcurrentHashMap<Long, TestJob>();
+		_completed = new ConcurrentLinkedQueue<Long>();
+		_completedCount = new AtomicInteger();
+		_retention = _conf.getLong("wmr.tests.retention", 3600000);
+		_maxRetained = _conf.getInt("wmr.tests.retention.count", 256);
+		_pageSize = JobServiceHandler.getOutputPageSize(_conf);
+		
+		cleanUp();
 	}
 
 	public void submit(JobRequest request, long submissionID, File mapperFile,
 			File reducerFile, File packageDir, Path inputPath)
 		throws ValidationException, NotFoundException,
-		       CompilationException, InternalException, ForbiddenTestJobException
+		       CompilationException, InternalException, ForbiddenTestJobException,
+		       QuotaException
 	{
 		if(!_allowTestJobs) {
 			throw new ForbiddenTestJobException("Test jobs are disabled on this system. Please submit this as a regular job.");
 		}
 		
 		boolean numericSort = request.isNumericSort();
+		int mapTasks = request.isSetMapTasks() ? request.getMapTasks() : 1;
+		int reduceTasks = request.isSetReduceTasks() ? request.getReduceTasks() : 1;
 		
 		TestJobTask job = new TestJobTask(_conf, submissionID, inputPath,
-				mapperFile, reducerFile, packageDir, numericSort);
-		submit(submissionID, job);
+				mapperFile, reducerFile, packageDir, numericSort,
+				mapTasks, reduceTasks, _workers, _taskExecutor);
+		if (!submit(request.getUser(), submissionID, job))
+			throw new QuotaException("You already have too many test jobs " +
+					"waiting to run. Please resubmit this job once one has " +
+					"finished.", _conf.getInt("wmr.tests.queue.user.max", 3), 0);
 		
 		try {
 		    SubmissionDatabase.setSubmitted(submissionID);
@@ -101,22 +191,59 @@ public class TestJobEngine implements JobEngine
 
 	public JobStatus getStatus(Submission submission)
 			throws NotFoundException, InternalException
+	{
+		JobStatus status = getCurrentStatus(submission);
+		status.setVersion(_statusFeed.publish(submission.getID(), status));
+		return status;
+	}
+	
+	private JobStatus getCurrentStatus(Submission submission)
+			throws NotFoundException, InternalException
+	{
+		expire();
+		
+		TestJob job = findTestJob(submission.getID());
+		JobStatus status = job.status;
+		if (status == null)
+		{
+			status = buildStatus(submission, job.future);
+			if (status.getState() == State.PREP ||
+			    status.getState() == State.RUNNING)
+				return status;
+			job.status = status;
+		}
+		
+		// Callers set the version on what they're given, so don't hand out the
+		// cached status itself
+		return status.deepCopy();
+	}
+	
+	private JobStatus buildStatus(Submission submission,
+			Future<TestJobResult> job)
+			throws NotFoundException, InternalException
 	{
 		JobStatus status = new JobStatus();
 		
 		status.setInfo(getInfo(submission));
 		
-		if (!isComplete(submission.getID()))
+		if (!job.isDone())
 		{
-			// In progress
+			// Waiting or in progress
 			
-			status.setState(State.RUNNING);
+			int position = _scheduler.getQueuePosition(submission.getID());
+			if (position >= 0)
+			{
+				status.setState(State.PREP);
+				status.setQueuePosition(position);
+			}
+			else
+				status.setState(State.RUNNING);
 			// Should be no way or need to set mapper or reducer progress.
 			return status;
 		}
 		else
 		{
-			if (isKilled(submission.getID()))
+			if (job.isCancelled())
 			{
 				// Killed
 				
@@ -130,7 +257,7 @@ public class TestJobEngine implements JobEngine
 				TestJobResult tjr;
 				try
 				{
-					tjr = getResult(submission.getID());
+					tjr = getResult(job);
 				}
 				catch (ExecutionException ex)
 				{
@@ -143,8 +270,7 @@ public class TestJobEngine implements JobEngine
 				PhaseStatus mapStatus = new PhaseStatus();
 				mapStatus.setProgress(100);
 				mapStatus.setCode(tjr.getMapResult().getExitCode());
-				mapStatus.setOutput(readFile(tjr.getMapResult().getOutputFile()));
-				mapStatus.setErrors(readFile(tjr.getMapResult().getErrorFile()));
+				setFirstPages(mapStatus, tjr.getMapResult());
 				if (mapStatus.getCode() == 0)
 					mapStatus.setState(State.SUCCESSFUL);
 				else
@@ -157,8 +283,7 @@ public class TestJobEngine implements JobEngine
 				if (tjr.getReduceResult() != null)
 				{
 					reduceStatus.setCode(tjr.getReduceResult().getExitCode());
-					reduceStatus.setOutput(readFile(tjr.getReduceResult().getOutputFile()));
-					reduceStatus.setErrors(readFile(tjr.getReduceResult().getErrorFile()));
+					setFirstPages(reduceStatus, tjr.getReduceResult());
 					reduceStatus.setProgress(100);
 					if (reduceStatus.getCode() == 0)
 						reduceStatus.setState(State.SUCCESSFUL);
@@ -178,11 +303,66 @@ public class TestJobEngine implements JobEngine
 		}
 	}
 
-	public String getOutput(Submission submission, int page)
-		throws IllegalJobStateException
+	public List<StatusResult> getStatuses(List<Submission> submissions)
+	{
+		List<StatusResult> results = new ArrayList<StatusResult>(submissions.size());
+		for (Submission submission : submissions)
+		{
+			StatusResult result = new StatusResult();
+			result.setId(submission.getID());
+			try
+			{
+				result.setStatus(getStatus(submission));
+			}
+			catch (NotFoundException ex)
+			{
+				result.setNotFound(ex);
+			}
+			catch (InternalException ex)
+			{
+				result.setError(ex);
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	/**
+	 * Reads a page of the output or errors of one phase of a completed test
+	 * job. Pages are numbered from 1.
+	 */
+	public DataPage getOutput(Submission submission, boolean reduce,
+			boolean errors, int page)
+		throws NotFoundException, IllegalJobStateException, InternalException
 	{
-		throw new IllegalJobStateException(
-				"This method does not read output for test jobs.");
+		Future<TestJobResult> job = findJob(submission.getID());
+		if (!job.isDone())
+			throw new IllegalJobStateException(
+					"The test job has not finished yet.");
+		if (job.isCancelled())
+			throw new IllegalJobStateException(
+					"The test job was killed before it produced any output.");
+		
+		TestJobResult tjr;
+		try
+		{
+			tjr = getResult(job);
+		}
+		catch (ExecutionException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"A serious error prevented the test job from completing.",
+					ex);
+		}
+		
+		TestJobResult.TransformResult result =
+			reduce ? tjr.getReduceResult() : tjr.getMapResult();
+		if (result == null)
+			return readPage(null, 0, page);
+		else if (errors)
+			return readPage(result.getErrorFile(), result.getErrorSize(), page);
+		else
+			return readPage(result.getOutputFile(), result.getOutputSize(), page);
 	}
 
 	public void kill(Submission submission) throws NotFoundException,
@@ -194,17 +374,55 @@ public class TestJobEngine implements JobEngine
 	}
 
 
-	private String readFile(File file) throws InternalException
+	/**
+	 * Sets the output and errors of a phase to the first page of each, along
+	 * with the number of pages there are in all.
+	 */
+	private void setFirstPages(PhaseStatus phaseStatus,
+			TestJobResult.TransformResult result)
+		throws NotFoundException, InternalException
+	{
+		DataPage output = readPage(
+				result.getOutputFile(), result.getOutputSize(), 1);
+		phaseStatus.setOutput(output.isSetData() ? output.getData() : "");
+		phaseStatus.setOutputPages(output.getTotalPages());
+		
+		DataPage errors = readPage(
+				result.getErrorFile(), result.getErrorSize(), 1);
+		phaseStatus.setErrors(errors.isSetData() ? errors.getData() : "");
+		phaseStatus.setErrorPages(errors.getTotalPages());
+	}
+	
+	/**
+	 * Reads a page of an output or error file, in pages of the same size as
+	 * JobServiceHandler#readDataPage() uses. Only the page itself is read.
+	 */
+	private DataPage readPage(File file, long size, int page)
+		throws NotFoundException, InternalException
 	{
-		if (file == null)
-			return "";
+		DataPage ret = new DataPage();
+		if (file == null || size == 0)
+		{
+			// Return empty output
+			ret.setTotalPages(0);
+			ret.setData(null);
+			return ret;
+		}
 		
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		FileInputStream in = null;
+		int totalPages = (int)Math.ceil((double)size / _pageSize);
+		if (page < 1 || page > totalPages)
+			throw new NotFoundException(
+				"Specified page \"" + Integer.toString(page) + "\" is beyond the " +
+				"number of pages in the data.");
+		
+		long offset = (long)_pageSize * (page - 1);
+		byte[] buffer = new byte[(int)Math.min(_pageSize, size - offset)];
+		RandomAccessFile in = null;
 		try
 		{
-			in = new FileInputStream(file);
-			IOUtils.copy(in, out);
+			in = new RandomAccessFile(file, "r");
+			in.seek(offset);
+			in.readFully(buffer);
 		}
 		catch (IOException ex)
 		{
@@ -213,39 +431,259 @@ public class TestJobEngine implements JobEngine
 		}
 		finally
 		{
-			IOUtils.closeQuietly(in);
+			if (in != null)
+			{
+				try { in.close(); } catch (IOException ex) { }
+			}
+		}
+		
+		ret.setTotalPages(totalPages);
+		ret.setData(new String(buffer));
+		return ret;
+	}
+	
+	protected boolean submit(String user, final long submissionID,
+			TestJobTask job)
+	{
+		final TestJob testJob = new TestJob(
+			new FutureTask<TestJobResult>(job) {
+				protected void done()
+				{
+					completed(submissionID);
+				}
+			});
+		
+		// Register before queueing, in case the job completes right away
+		expire();
+		_jobs.put(submissionID, testJob);
+		if (!_scheduler.submit(user, submissionID, testJob.future))
+		{
+			_jobs.remove(submissionID);
+			return false;
+		}
+		return true;
+	}
+	
+	private void completed(long submissionID)
+	{
+		TestJob job = _jobs.get(submissionID);
+		if (job != null)
+		{
+			job.completed = System.currentTimeMillis();
+			store(submissionID, job);
+			_completed.add(submissionID);
+			_completedCount.incrementAndGet();
+		}
+		
+		// Wake anyone watching for the job to finish
+		_statusFeed.invalidate(submissionID);
+		
+		expire();
+	}
+	
+	/**
+	 * Records a completed job's result in the database, so that it is still
+	 * available after the server restarts.
+	 */
+	private void store(long submissionID, TestJob job)
+	{
+		TestJobResult result;
+		if (job.future.isCancelled())
+		{
+			result = new TestJobResult();
+			result.setKilled(true);
+			result.setFinishTime(job.completed);
+		}
+		else
+		{
+			try
+			{
+				result = getResult(job.future);
+			}
+			catch (ExecutionException ex)
+			{
+				// Nothing to keep
+				return;
+			}
+		}
+		
+		try
+		{
+			SubmissionDatabase.setTestResult(submissionID, result);
+		}
+		catch (SQLException ex)
+		{
+			// Not fatal; the result just won't outlive the server
+		}
+	}
+	
+	/**
+	 * Loads the stored result of a job which completed before the server last
+	 * started, and registers the job as though it had just completed.
+	 *
+	 * @return The job, or null if no unexpired result was stored.
+	 */
+	private TestJob load(long submissionID) throws InternalException
+	{
+		TestJobResult result;
+		try
+		{
+			result = SubmissionDatabase.findTestResult(submissionID);
+		}
+		catch (SQLException ex)
+		{
+			throw JobServiceHandler.wrapException(
+					"Could not retrieve test job result from database.", ex);
+		}
+		if (result == null)
+			return null;
+		if (result.getFinishTime() < System.currentTimeMillis() - _retention)
+		{
+			forget(submissionID, result);
+			return null;
+		}
+		
+		final TestJobResult storedResult = result;
+		FutureTask<TestJobResult> future = new FutureTask<TestJobResult>(
+			new Callable<TestJobResult>() {
+				public TestJobResult call()
+				{
+					return storedResult;
+				}
+			});
+		if (result.isKilled())
+			future.cancel(false);
+		else
+			future.run();
+		
+		TestJob job = new TestJob(future);
+		job.completed = result.getFinishTime();
+		TestJob existing = _jobs.putIfAbsent(submissionID, job);
+		if (existing != null)
+			return existing;
+		_completed.add(submissionID);
+		_completedCount.incrementAndGet();
+		return job;
+	}
+	
+	/**
+	 * Deletes a job's output files and stored result.
+	 */
+	private static void forget(long submissionID, TestJobResult result)
+	{
+		if (result != null)
+			result.delete();
+		try
+		{
+			SubmissionDatabase.deleteTestResult(submissionID);
+		}
+		catch (SQLException ex)
+		{
+			// The result will be deleted at startup instead
+		}
+	}
+	
+	/**
+	 * Deletes the stored results of jobs which have expired while the server
+	 * was not running, and any temporary files left by test jobs that no
+	 * stored result refers to.
+	 */
+	private void cleanUp()
+	{
+		Set<String> keep;
+		try
+		{
+			SubmissionDatabase.deleteTestResultsBefore(
+					new Timestamp(System.currentTimeMillis() - _retention));
+			keep = SubmissionDatabase.findTestResultFiles();
+		}
+		catch (SQLException ex)
+		{
+			// Better to leave files behind than to delete ones still in use
+			return;
+		}
+		
+		File[] files = JobServiceHandler.getTempDir(_conf).listFiles();
+		if (files == null)
+			return;
+		for (File file : files)
+		{
+			if (file.isFile() &&
+			    TEMP_FILE_PATTERN.matcher(file.getName()).matches() &&
+			    !keep.contains(file.getAbsolutePath()))
+				file.delete();
+		}
+	}
+	
+	/**
+	 * Forgets the oldest completed jobs while there are too many of them, and
+	 * any that have been kept too long, deleting their output files.
+	 */
+	private void expire()
+	{
+		long cutoff = System.currentTimeMillis() - _retention;
+		
+		// Jobs loaded from the database keep their original completion times,
+		// so one may have expired behind younger jobs; check every job's age
+		for (Long id : _completed)
+		{
+			TestJob job = _jobs.get(id);
+			if (job == null || job.completed < cutoff ||
+			    _completedCount.get() > _maxRetained)
+				expire(id);
 		}
-		return out.toString();
 	}
 	
-	protected synchronized void submit(long submissionID, TestJobTask job)
+	private void expire(Long submissionID)
 	{
-		Future<TestJobResult> jobFuture = _jobQueue.submit(job);
-		_jobs.put(new Long(submissionID), jobFuture);
+		// Only the thread which dequeues the job expires it
+		if (!_completed.remove(submissionID))
+			return;
+		_completedCount.decrementAndGet();
+		TestJob job = _jobs.remove(submissionID);
+		TestJobResult result = null;
+		if (job != null && !job.future.isCancelled())
+		{
+			try
+			{
+				result = job.future.get();
+			}
+			catch (Exception ex)
+			{
+				// Failed jobs leave no result to delete
+			}
+		}
+		forget(submissionID, result);
 	}
 	
-	protected synchronized boolean kill(long submissionID)
-		throws NotFoundException
+	protected boolean kill(long submissionID)
+		throws NotFoundException, InternalException
 	{
 		return findJob(submissionID).cancel(true);
 	}
 	
-	protected synchronized boolean isComplete(long submissionID)
-		throws NotFoundException
+	protected boolean isComplete(long submissionID)
+		throws NotFoundException, InternalException
 	{
 		return findJob(submissionID).isDone();
 	}
 	
-	protected synchronized boolean isKilled(long submissionID)
-		throws NotFoundException
+	protected boolean isKilled(long submissionID)
+		throws NotFoundException, InternalException
 	{
 		return findJob(submissionID).isCancelled();
 	}
 	
-	protected synchronized TestJobResult getResult(long submissionID)
-		throws NotFoundException, ExecutionException, CancellationException
+	protected TestJobResult getResult(long submissionID)
+		throws NotFoundException, InternalException, ExecutionException,
+		       CancellationException
+	{
+		return getResult(findJob(submissionID));
+	}
+	
+	private static TestJobResult getResult(Future<TestJobResult> job)
+		throws ExecutionException, CancellationException
 	{
-		Future<TestJobResult> job = findJob(submissionID);
 		while (true)
 		{
 			try
@@ -259,14 +697,26 @@ public class TestJobEngine implements JobEngine
 		}
 	}
 	
-	private synchronized Future<TestJobResult> findJob(long submissionID)
-		throws NotFoundException
+	private Future<TestJobResult> findJob(long submissionID)
+		throws NotFoundException, InternalException
 	{
-		Future<TestJobResult> job = _jobs.get(submissionID);
+		return findTestJob(submissionID).future;
+	}
+	
+	/**
+	 * Finds a job, loading its stored result if it completed before the server
+	 * last started.
+	 */
+	private TestJob findTestJob(long submissionID)
+		throws NotFoundException, InternalException
+	{
+		TestJob job = _jobs.get(submissionID);
+		if (job == null)
+			job = load(submissionID);
 		if (job == null)
 			throw new NotFoundException(
 					"Could not find test job with ID " +
-					submissionID);
+					submissionID + ". Its results may have expired.");
 		return job;
 	}
 }
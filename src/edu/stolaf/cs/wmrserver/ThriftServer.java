@@ -15,15 +15,25 @@
 
 package edu.stolaf.cs.wmrserver;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.util.Tool;
 import org.apache.hadoop.util.ToolRunner;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.server.THsHaServer;
 import org.apache.thrift.server.TServer;
 import org.apache.thrift.server.TServer.Args;
 import org.apache.thrift.server.TSimpleServer;
+import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TServerSocket;
 import org.apache.thrift.transport.TServerTransport;
+import org.apache.thrift.transport.TTransportException;
 
 import edu.stolaf.cs.wmrserver.db.SubmissionDatabase;
 import edu.stolaf.cs.wmrserver.thrift.JobService;
@@ -34,6 +44,19 @@ public class ThriftServer extends Configured implements Tool
 	public static final String CONF_DEFAULT_RESOURCE = "wmr-default.xml";
 	public static final String CONF_SITE_RESOURCE = "wmr-site.xml";
 	
+	/** Serves one request at a time on a blocking socket. */
+	public static final String SERVER_TYPE_SIMPLE = "simple";
+	/**
+	 * Serves each connection on its own thread. Connections beyond the
+	 * maximum number of threads wait to be accepted.
+	 */
+	public static final String SERVER_TYPE_THREADPOOL = "threadpool";
+	/**
+	 * Accepts and reads requests on a selector thread and hands them to a
+	 * bounded worker pool. Requires clients to use framed transport.
+	 */
+	public static final String SERVER_TYPE_HSHA = "hsha";
+	
 	static
 	{
 		Configuration.addDefaultResource(CONF_DEFAULT_RESOURCE);
@@ -55,11 +78,65 @@ public class ThriftServer extends Configured implements Tool
 		
 		JobServiceHandler service = new JobServiceHandler(new Configuration());
 		JobService.Processor processor = new JobService.Processor(service);
-		TServerTransport transport = new TServerSocket(port);
-		TServer server = new TSimpleServer(new Args(transport).processor(processor));
+		TServer server = createServer(conf, port, processor);
 		
 		server.serve();
 		
 		return 0;
 	}
+	
+	/**
+	 * Creates the Thrift server specified by the "wmr.server.type" property.
+	 * Worker pools are bounded by "wmr.server.threads.min" and
+	 * "wmr.server.threads.max", and (for the selector-based server) by a
+	 * request queue of "wmr.server.queue.size" entries.
+	 */
+	protected static TServer createServer(Configuration conf, int port,
+			TProcessor processor) throws TTransportException
+	{
+		String type = conf.get("wmr.server.type", SERVER_TYPE_THREADPOOL);
+		int minThreads = conf.getInt("wmr.server.threads.min", 5);
+		int maxThreads = Math.max(minThreads,
+				conf.getInt("wmr.server.threads.max", 64));
+		int queueSize = conf.getInt("wmr.server.queue.size", 256);
+		
+		if (type.equals(SERVER_TYPE_SIMPLE))
+		{
+			TServerTransport transport = new TServerSocket(port);
+			return new TSimpleServer(new Args(transport).processor(processor));
+		}
+		else if (type.equals(SERVER_TYPE_THREADPOOL))
+		{
+			// TThreadPoolServer's own pool rejects connections beyond its
+			// maximum by throwing out of serve(), stopping the server, so
+			// connections are limited before they are accepted instead, and
+			// the pool left unbounded. It only exceeds the limit briefly, while
+			// the threads of just-closed connections finish up.
+			TServerTransport transport = new LimitedServerSocket(
+					new TServerSocket(port), maxThreads);
+			TThreadPoolServer.Args args = new TThreadPoolServer.Args(transport);
+			args.processor(processor);
+			args.minWorkerThreads(minThreads);
+			args.maxWorkerThreads(Integer.MAX_VALUE);
+			return new TThreadPoolServer(args);
+		}
+		else if (type.equals(SERVER_TYPE_HSHA))
+		{
+			// Requests beyond the queue size are rejected (and their
+			// connections closed) rather than piling up without bound
+			ThreadPoolExecutor workers = new ThreadPoolExecutor(
+					minThreads, maxThreads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(queueSize));
+			
+			TNonblockingServerSocket transport = new TNonblockingServerSocket(port);
+			THsHaServer.Args args = new THsHaServer.Args(transport);
+			args.processor(processor);
+			args.transportFactory(new TFramedTransport.Factory());
+			args.executorService(workers);
+			return new THsHaServer(args);
+		}
+		else
+			throw new IllegalArgumentException(
+					"Unknown server type \"" + type + "\" in wmr.server.type.");
+	}
 }
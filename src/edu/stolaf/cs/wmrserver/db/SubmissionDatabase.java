@@ -15,6 +15,7 @@
 
 package edu.stolaf.cs.wmrserver.db;
 
+import java.io.File;
 import java.sql.*;
 import java.util.HashSet;
 import java.util.Set;
@@ -22,6 +23,8 @@ import java.util.Set;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 
+import edu.stolaf.cs.wmrserver.testjob.TestJobResult;
+
 public class SubmissionDatabase
 {
 	private static final String ADD_STMT =
@@ -34,10 +37,33 @@ public class SubmissionDatabase
 		"UPDATE Submissions SET Submitted = TRUE WHERE ID = ?";
 	private static final String SET_COMPLETED_STMT =
 		"UPDATE Submissions SET Completed = TRUE WHERE ID = ?";
+	private static final String SET_STATUS_STMT =
+		"MERGE INTO Statuses (ID, State, Status) KEY (ID) VALUES (?, ?, ?)";
+	private static final String FIND_STATUS_STMT =
+		"SELECT Status FROM Statuses WHERE ID = ?";
+	private static final String SET_INFO_STMT =
+		"MERGE INTO JobInfos (ID, Info) KEY (ID) VALUES (?, ?)";
+	private static final String FIND_INFO_STMT =
+		"SELECT Info FROM JobInfos WHERE ID = ?";
 	private static final String SET_HADOOP_ID_STMT =
 		"UPDATE Submissions SET Hadoop_ID = ? WHERE ID = ?";
 	private static final String FIND_STMT =
 		"SELECT * FROM Submissions WHERE ID = ?";
+	private static final String SET_TEST_RESULT_STMT =
+		"MERGE INTO TestResults (ID, Killed, Started, Finished, " +
+		"Map_Code, Map_Output, Map_Output_Size, Map_Errors, Map_Errors_Size, " +
+		"Reduce_Code, Reduce_Output, Reduce_Output_Size, Reduce_Errors, " +
+		"Reduce_Errors_Size) KEY (ID) " +
+		"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String FIND_TEST_RESULT_STMT =
+		"SELECT * FROM TestResults WHERE ID = ?";
+	private static final String DELETE_TEST_RESULT_STMT =
+		"DELETE FROM TestResults WHERE ID = ?";
+	private static final String DELETE_TEST_RESULTS_BEFORE_STMT =
+		"DELETE FROM TestResults WHERE Finished < ?";
+	private static final String FIND_TEST_RESULT_FILES_STMT =
+		"SELECT Map_Output, Map_Errors, Reduce_Output, Reduce_Errors " +
+		"FROM TestResults";
 	private static final String QUOTA_STMT =
 		"SELECT * FROM Submissions WHERE USER like ? AND TIMESTAMP >= ?";
 	
@@ -46,8 +72,17 @@ public class SubmissionDatabase
 	private static PreparedStatement _setInputStmt;
 	private static PreparedStatement _setSubmittedStmt;
 	private static PreparedStatement _setCompletedStmt;
+	private static PreparedStatement _setStatusStmt;
+	private static PreparedStatement _findStatusStmt;
+	private static PreparedStatement _setInfoStmt;
+	private static PreparedStatement _findInfoStmt;
 	private static PreparedStatement _setHadoopIDStmt;
 	private static PreparedStatement _findStmt;
+	private static PreparedStatement _setTestResultStmt;
+	private static PreparedStatement _findTestResultStmt;
+	private static PreparedStatement _deleteTestResultStmt;
+	private static PreparedStatement _deleteTestResultsBeforeStmt;
+	private static PreparedStatement _findTestResultFilesStmt;
 	private static PreparedStatement _quotaStmt;
 	
 	public synchronized static void connect(Configuration conf)
@@ -67,8 +102,19 @@ public class SubmissionDatabase
 		_setInputStmt = _conn.prepareStatement(SET_INPUT_STMT);
 		_setSubmittedStmt = _conn.prepareStatement(SET_SUBMITTED_STMT);
 		_setCompletedStmt = _conn.prepareStatement(SET_COMPLETED_STMT);
+		_setStatusStmt = _conn.prepareStatement(SET_STATUS_STMT);
+		_findStatusStmt = _conn.prepareStatement(FIND_STATUS_STMT);
+		_setInfoStmt = _conn.prepareStatement(SET_INFO_STMT);
+		_findInfoStmt = _conn.prepareStatement(FIND_INFO_STMT);
 		_setHadoopIDStmt = _conn.prepareStatement(SET_HADOOP_ID_STMT);
 		_findStmt = _conn.prepareStatement(FIND_STMT);
+		_setTestResultStmt = _conn.prepareStatement(SET_TEST_RESULT_STMT);
+		_findTestResultStmt = _conn.prepareStatement(FIND_TEST_RESULT_STMT);
+		_deleteTestResultStmt = _conn.prepareStatement(DELETE_TEST_RESULT_STMT);
+		_deleteTestResultsBeforeStmt =
+			_conn.prepareStatement(DELETE_TEST_RESULTS_BEFORE_STMT);
+		_findTestResultFilesStmt =
+			_conn.prepareStatement(FIND_TEST_RESULT_FILES_STMT);
 		_quotaStmt = _conn.prepareStatement(QUOTA_STMT);
 	}
 	
@@ -112,9 +158,24 @@ public class SubmissionDatabase
 		}
 	}
 	
-	public static boolean setCompleted(long id)
+	/**
+	 * Marks a submission as completed, storing its final status.
+	 * 
+	 * @param state  The name of the final state of the job.
+	 * @param status  The serialized final status of the job.
+	 */
+	public static boolean setCompleted(long id, String state, byte[] status)
 		throws SQLException
 	{
+		// Store the status first, so that a completed submission always has one
+		synchronized (_setStatusStmt)
+		{
+			_setStatusStmt.setLong(1, id);
+			_setStatusStmt.setString(2, state);
+			_setStatusStmt.setBytes(3, status);
+			_setStatusStmt.executeUpdate();
+		}
+		
 		synchronized (_setCompletedStmt)
 		{
 			_setCompletedStmt.setLong(1, id);
@@ -122,6 +183,23 @@ public class SubmissionDatabase
 			return (_setCompletedStmt.executeUpdate() != 0);
 		}
 	}
+	
+	/**
+	 * Gets the serialized final status of a completed submission, or null if
+	 * none was stored.
+	 */
+	public static byte[] findStatus(long id)
+		throws SQLException
+	{
+		synchronized (_findStatusStmt)
+		{
+			_findStatusStmt.setLong(1, id);
+			ResultSet rs = _findStatusStmt.executeQuery();
+			if (!rs.next())
+				return null;
+			return rs.getBytes("Status");
+		}
+	}
 
 	public static boolean setHadoopID(long id, String hadoopID)
 		throws SQLException
@@ -135,6 +213,144 @@ public class SubmissionDatabase
 		}
 	}
 	
+	/**
+	 * Stores the serialized information about a submitted Hadoop job.
+	 */
+	public static boolean setInfo(long id, byte[] info)
+		throws SQLException
+	{
+		synchronized (_setInfoStmt)
+		{
+			_setInfoStmt.setLong(1, id);
+			_setInfoStmt.setBytes(2, info);
+			
+			return (_setInfoStmt.executeUpdate() != 0);
+		}
+	}
+	
+	/**
+	 * Gets the serialized information about a submitted Hadoop job, or null if
+	 * none was stored.
+	 */
+	public static byte[] findInfo(long id)
+		throws SQLException
+	{
+		synchronized (_findInfoStmt)
+		{
+			_findInfoStmt.setLong(1, id);
+			ResultSet rs = _findInfoStmt.executeQuery();
+			if (!rs.next())
+				return null;
+			return rs.getBytes("Info");
+		}
+	}
+	
+	/**
+	 * Records the result of a completed test job and marks the submission as
+	 * completed. The files the result refers to must be kept until the result
+	 * is deleted.
+	 */
+	public static boolean setTestResult(long id, TestJobResult result)
+		throws SQLException
+	{
+		synchronized (_setTestResultStmt)
+		{
+			_setTestResultStmt.setLong(1, id);
+			_setTestResultStmt.setBoolean(2, result.isKilled());
+			_setTestResultStmt.setTimestamp(3, (result.getStartTime() == 0) ?
+					null : new Timestamp(result.getStartTime()));
+			_setTestResultStmt.setTimestamp(4,
+					new Timestamp(result.getFinishTime()));
+			setTransformResult(_setTestResultStmt, 5, result.getMapResult());
+			setTransformResult(_setTestResultStmt, 10, result.getReduceResult());
+			_setTestResultStmt.executeUpdate();
+		}
+		
+		synchronized (_setCompletedStmt)
+		{
+			_setCompletedStmt.setLong(1, id);
+			
+			return (_setCompletedStmt.executeUpdate() != 0);
+		}
+	}
+	
+	/**
+	 * Gets the stored result of a completed test job, or null if none was
+	 * stored.
+	 */
+	public static TestJobResult findTestResult(long id)
+		throws SQLException
+	{
+		synchronized (_findTestResultStmt)
+		{
+			_findTestResultStmt.setLong(1, id);
+			ResultSet rs = _findTestResultStmt.executeQuery();
+			if (!rs.next())
+				return null;
+			
+			TestJobResult result = new TestJobResult();
+			result.setKilled(rs.getBoolean("Killed"));
+			Timestamp started = rs.getTimestamp("Started");
+			if (started != null)
+				result.setStartTime(started.getTime());
+			result.setFinishTime(rs.getTimestamp("Finished").getTime());
+			result.setMapResult(getTransformResult(rs, "Map"));
+			result.setReduceResult(getTransformResult(rs, "Reduce"));
+			return result;
+		}
+	}
+	
+	public static boolean deleteTestResult(long id)
+		throws SQLException
+	{
+		synchronized (_deleteTestResultStmt)
+		{
+			_deleteTestResultStmt.setLong(1, id);
+			
+			return (_deleteTestResultStmt.executeUpdate() != 0);
+		}
+	}
+	
+	/**
+	 * Deletes the stored results of test jobs which finished before the given
+	 * time. Their files are left for the caller to delete.
+	 *
+	 * @return The number of results deleted.
+	 */
+	public static int deleteTestResultsBefore(Timestamp time)
+		throws SQLException
+	{
+		synchronized (_deleteTestResultsBeforeStmt)
+		{
+			_deleteTestResultsBeforeStmt.setTimestamp(1, time);
+			
+			return _deleteTestResultsBeforeStmt.executeUpdate();
+		}
+	}
+	
+	/**
+	 * Gets the paths of all files referred to by stored test job results.
+	 */
+	public static Set<String> findTestResultFiles()
+		throws SQLException
+	{
+		synchronized (_findTestResultFilesStmt)
+		{
+			HashSet<String> files = new HashSet<String>();
+			ResultSet rs = _findTestResultFilesStmt.executeQuery();
+			while (rs.next())
+			{
+				for (int i = 1; i <= 4; i++)
+				{
+					String file = rs.getString(i);
+					if (file != null)
+						files.add(file);
+				}
+			}
+			return files;
+		}
+	}
+	
 	public static Submission find(long id)
 		throws SQLException
 	{
@@ -163,6 +379,58 @@ public class SubmissionDatabase
 		}
 	}
 	
+	/**
+	 * Sets the five parameters for a transform's result, starting at the
+	 * given index, to the result's values, or to null if there is none.
+	 */
+	private static void setTransformResult(PreparedStatement stmt, int index,
+			TestJobResult.TransformResult result)
+		throws SQLException
+	{
+		if (result == null)
+		{
+			stmt.setNull(index, Types.INTEGER);
+			stmt.setNull(index + 1, Types.VARCHAR);
+			stmt.setNull(index + 2, Types.BIGINT);
+			stmt.setNull(index + 3, Types.VARCHAR);
+			stmt.setNull(index + 4, Types.BIGINT);
+			return;
+		}
+		
+		stmt.setInt(index, result.getExitCode());
+		stmt.setString(index + 1, (result.getOutputFile() == null) ?
+				null : result.getOutputFile().getAbsolutePath());
+		stmt.setLong(index + 2, result.getOutputSize());
+		stmt.setString(index + 3, (result.getErrorFile() == null) ?
+				null : result.getErrorFile().getAbsolutePath());
+		stmt.setLong(index + 4, result.getErrorSize());
+	}
+	
+	private static TestJobResult.TransformResult getTransformResult(
+			ResultSet rs, String phase)
+		throws SQLException
+	{
+		int exitCode = rs.getInt(phase + "_Code");
+		if (rs.wasNull())
+			return null;
+		
+		TestJobResult.TransformResult result = new TestJobResult.TransformResult();
+		result.setExitCode(exitCode);
+		String outputFile = rs.getString(phase + "_Output");
+		if (outputFile != null)
+		{
+			result.setOutputFile(new File(outputFile));
+			result.setOutputSize(rs.getLong(phase + "_Output_Size"));
+		}
+		String errorFile = rs.getString(phase + "_Errors");
+		if (errorFile != null)
+		{
+			result.setErrorFile(new File(errorFile));
+			result.setErrorSize(rs.getLong(phase + "_Errors_Size"));
+		}
+		return result;
+	}
+	
 	protected static Submission constructSubmission(ResultSet rs)
 		throws SQLException
 	{
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Finds the lines of a subprocess's output in place, in a reusable buffer,
+ * so that each line's key and value can be copied straight out of it rather
+ * than through an intermediate line. A line ends at '\n', '\r' or "\r\n",
+ * as with LineReader.
+ */
+class KeyValLineReader {
+
+  private InputStream in_;
+  private byte[] buffer_;
+  /** The start of the unread bytes, and the end of the bytes read. */
+  private int pos_, end_;
+  private int lineStart_, lineEnd_;
+
+  KeyValLineReader(InputStream in, int bufferSize) {
+    in_ = in;
+    buffer_ = new byte[bufferSize];
+  }
+
+  /** Find the next line, which is then the bytes of getBuffer() from
+   * getLineStart() to getLineEnd(), until the next call.
+   * @return false if there are no more lines
+   */
+  boolean next() throws IOException {
+    int scanned = 0;
+    int eol;
+    while (true) {
+      eol = findLineEnd(buffer_, pos_ + scanned, end_);
+      if (eol != -1 && (buffer_[eol] == '\n' || eol + 1 < end_)) {
+        break;
+      }
+      // either no line end yet or a '\r' which may be followed by '\n'
+      scanned = (eol == -1) ? end_ - pos_ : eol - pos_;
+      if (!fill()) {
+        if (pos_ == end_) {
+          return false;
+        }
+        eol = (eol == -1) ? end_ : pos_ + scanned;
+        break;
+      }
+    }
+
+    lineStart_ = pos_;
+    lineEnd_ = eol;
+    pos_ = eol;
+    if (pos_ < end_) {
+      pos_++;
+      if (buffer_[eol] == '\r' && pos_ < end_ && buffer_[pos_] == '\n') {
+        pos_++;
+      }
+    }
+    return true;
+  }
+
+  byte[] getBuffer() {
+    return buffer_;
+  }
+
+  int getLineStart() {
+    return lineStart_;
+  }
+
+  int getLineEnd() {
+    return lineEnd_;
+  }
+
+  void close() throws IOException {
+    in_.close();
+  }
+
+  /** Move the unread bytes to the front of the buffer, growing it if they
+   * fill it, and read more after them.
+   * @return false at the end of input
+   */
+  private boolean fill() throws IOException {
+    if (pos_ > 0) {
+      System.arraycopy(buffer_, pos_, buffer_, 0, end_ - pos_);
+      end_ -= pos_;
+      pos_ = 0;
+    } else if (end_ == buffer_.length) {
+      byte[] bigger = new byte[buffer_.length * 2];
+      System.arraycopy(buffer_, 0, bigger, 0, end_);
+      buffer_ = bigger;
+    }
+    int n = in_.read(buffer_, end_, buffer_.length - end_);
+    if (n <= 0) {
+      return false;
+    }
+    end_ += n;
+    return true;
+  }
+
+  private static int findLineEnd(byte[] b, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (b[i] == '\n' || b[i] == '\r') {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
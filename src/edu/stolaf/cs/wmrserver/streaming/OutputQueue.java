@@ -0,0 +1,151 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+
+/** A fixed ring of reusable keys and values passed from the thread reading a
+ * subprocess's output to the thread collecting it, so that neither stalls
+ * the other until the ring fills or empties. The time each side spends
+ * waiting for the other is kept, to tell whether the subprocess or the
+ * collector is the slower.
+ */
+class OutputQueue {
+
+  private Text[] keys_;
+  private Text[] vals_;
+  private int batch_;
+  /** The number of records published and released so far. */
+  private long published_, released_;
+  private boolean closed_;
+  private Throwable failure_;
+  private boolean putWaiting_, takeWaiting_;
+  private long putWaitNanos_, takeWaitNanos_;
+
+  OutputQueue(int depth) {
+    keys_ = new Text[depth];
+    vals_ = new Text[depth];
+    batch_ = Math.max(depth / 4, 1);
+    for (int i = 0; i < depth; i++) {
+      keys_[i] = new Text();
+      vals_[i] = new Text();
+    }
+  }
+
+  int getDepth() {
+    return keys_.length;
+  }
+
+  Text getKey(int slot) {
+    return keys_[slot];
+  }
+
+  Text getValue(int slot) {
+    return vals_[slot];
+  }
+
+  /** Wait for a free slot, whose key and value may then be set until
+   * {@link #publish()} is called.
+   * @return the slot
+   * @throws IOException if the collecting thread has failed
+   */
+  synchronized int claim() throws IOException, InterruptedException {
+    if (isFull() && failure_ == null) {
+      long start = System.nanoTime();
+      putWaiting_ = true;
+      while (isFull() && failure_ == null) {
+        wait();
+      }
+      putWaiting_ = false;
+      putWaitNanos_ += System.nanoTime() - start;
+    }
+    if (failure_ != null) {
+      throw new IOException("Output collector failed", failure_);
+    }
+    return (int) (published_ % keys_.length);
+  }
+
+  /** Pass the claimed slot on to the collecting thread. A waiting collector
+   * is woken only once a batch of records is ready, rather than for each.
+   */
+  synchronized void publish() {
+    published_++;
+    if (takeWaiting_ && published_ - released_ >= batch_) {
+      notifyAll();
+    }
+  }
+
+  /** Mark the end of the records; the collecting thread still takes those
+   * already published.
+   */
+  synchronized void close() {
+    closed_ = true;
+    if (takeWaiting_) {
+      notifyAll();
+    }
+  }
+
+  /** Wait for published records, which fill the slots following the last
+   * one released. Their keys and values may be read until they are released.
+   * @return the number of records, or 0 once the queue is closed and empty
+   */
+  synchronized int take() throws InterruptedException {
+    if (published_ == released_ && !closed_) {
+      long start = System.nanoTime();
+      takeWaiting_ = true;
+      while (published_ == released_ && !closed_) {
+        wait();
+      }
+      takeWaiting_ = false;
+      takeWaitNanos_ += System.nanoTime() - start;
+    }
+    return (int) (published_ - released_);
+  }
+
+  /** Free the given number of taken slots for reuse. */
+  synchronized void release(int count) {
+    released_ += count;
+    if (putWaiting_) {
+      notifyAll();
+    }
+  }
+
+  /** Stop the reading thread at its next claim, having failed to collect. */
+  synchronized void fail(Throwable failure) {
+    failure_ = failure;
+    notifyAll();
+  }
+
+  synchronized Throwable getFailure() {
+    return failure_;
+  }
+
+  /** The time the reading thread has waited for free slots. */
+  synchronized long getPutWaitMillis() {
+    return putWaitNanos_ / 1000000;
+  }
+
+  /** The time the collecting thread has waited for published records. */
+  synchronized long getTakeWaitMillis() {
+    return takeWaitNanos_ / 1000000;
+  }
+
+  private boolean isFull() {
+    return published_ - released_ == keys_.length;
+  }
+}
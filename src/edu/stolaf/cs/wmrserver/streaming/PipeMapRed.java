@@ -21,7 +21,6 @@
 package edu.stolaf.cs.wmrserver.streaming;
 
 import java.io.*;
-import java.nio.charset.CharacterCodingException;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Map;
@@ -37,10 +36,8 @@ import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.util.LineReader;
 import org.apache.hadoop.util.StringUtils;
-import org.apache.hadoop.util.UTF8ByteArrayUtils;
 
 import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.BytesWritable;
 
 import org.apache.hadoop.fs.FileSystem;
 
@@ -61,12 +58,33 @@ public abstract class PipeMapRed {
 
   abstract boolean getDoPipe();
 
+  /** Whether the subprocess reads each key once, followed by its values.
+   */
+  abstract boolean getGroupedInput();
+
   final static int OUTSIDE = 1;
   final static int SINGLEQ = 2;
   final static int DOUBLEQ = 3;
   
   private final static int BUFFER_SIZE = 128 * 1024;
 
+  /** The counter group for the time spent waiting on an output queue. */
+  final static String QUEUE_COUNTER_GROUP = "Streaming output queue";
+  final static String WAIT_COLLECTOR_COUNTER = "Waiting on collector (ms)";
+  final static String WAIT_SUBPROCESS_COUNTER = "Waiting on subprocess (ms)";
+
+  /** Set to "1" in the child's environment when records are length-prefixed.
+   */
+  final static String BINARY_ENV = "WMR_BINARY";
+
+  /** Set to "1" in the child's environment when its binary input is grouped.
+   */
+  final static String GROUPED_ENV = "WMR_GROUPED";
+
+  /** Written in place of a length to end a group of values.
+   */
+  final static int GROUP_END = -1;
+
   static String[] splitArgs(String args) {
     ArrayList argList = new ArrayList();
     char[] ch = args.toCharArray();
@@ -123,6 +141,10 @@ public abstract class PipeMapRed {
       fs_ = FileSystem.get(job_);
 
       nonZeroExitIsFailure_ = job_.getBoolean("stream.non.zero.exit.is.failure", true);
+      binary_ = job_.getBoolean(StreamJob.BINARY_RECORDS, false);
+      maxRecordSize_ = job_.getInt(StreamJob.MAX_RECORD_SIZE,
+                                   StreamJob.DEFAULT_MAX_RECORD_SIZE);
+      outputQueueDepth_ = job_.getInt(StreamJob.OUTPUT_QUEUE_DEPTH, 0);
       
       doPipe_ = getDoPipe();
       if (!doPipe_) return;
@@ -152,6 +174,13 @@ public abstract class PipeMapRed {
       addEnvironment(childEnv, job_.get("stream.addenvironment"));
       // add TMPDIR environment variable with the value of java.io.tmpdir
       envPut(childEnv, "TMPDIR", System.getProperty("java.io.tmpdir"));
+      // tell the wrapper libraries which framing to speak
+      if (binary_) {
+        envPut(childEnv, BINARY_ENV, "1");
+        if (getGroupedInput()) {
+          envPut(childEnv, GROUPED_ENV, "1");
+        }
+      }
 
       // Start the process
       ProcessBuilder builder = new ProcessBuilder(argvSplit);
@@ -163,9 +192,7 @@ public abstract class PipeMapRed {
 			builder.directory(new File(job.getJar()).getParentFile());
       sim = builder.start();
 
-      clientOut_ = new DataOutputStream(new BufferedOutputStream(
-                                              sim.getOutputStream(),
-                                              BUFFER_SIZE));
+      clientOut_ = new RecordEncoder(sim.getOutputStream(), BUFFER_SIZE);
       clientIn_ = new DataInputStream(new BufferedInputStream(
                                               sim.getInputStream(),
                                               BUFFER_SIZE));
@@ -328,32 +355,28 @@ public abstract class PipeMapRed {
   }
 
   /**
-   * Split a line into key and value.
+   * Split a line into key and value, copying each straight out of the line.
    * @param line: a byte array of line containing UTF-8 bytes
    * @param key: key of a record
    * @param val: value of a record
-   * @throws IOException
    */
-  void splitKeyVal(byte[] line, int length, Text key, Text val)
-  throws IOException {
+  void splitKeyVal(byte[] line, int start, int end, Text key, Text val) {
     int numKeyFields = getNumOfKeyFields();
     byte[] separator = getFieldSeparator();
     
     // Need to find numKeyFields separators
-    int pos = UTF8ByteArrayUtils.findBytes(line, 0, length, separator);
+    int pos = StreamKeyValUtil.findBytes(line, start, end, separator);
     for(int k=1; k<numKeyFields && pos!=-1; k++) {
-      pos = UTF8ByteArrayUtils.findBytes(line, pos + separator.length, 
-          length, separator);
+      pos = StreamKeyValUtil.findBytes(line, pos + separator.length, 
+          end, separator);
     }
-    try {
-      if (pos == -1) {
-        key.set(line, 0, length);
-        val.set("");
-      } else {
-        StreamKeyValUtil.splitKeyVal(line, 0, length, key, val, pos, separator.length);
-      }
-    } catch (CharacterCodingException e) {
-      LOG.warn(StringUtils.stringifyException(e));
+    if (pos == -1) {
+      key.set(line, start, end - start);
+      val.clear();
+    } else {
+      key.set(line, start, pos - start);
+      int valStart = pos + separator.length;
+      val.set(line, valStart, end - valStart);
     }
   }
 
@@ -366,26 +389,18 @@ public abstract class PipeMapRed {
     }
 
     public void run() {
-      LineReader lineReader = null;
       try {
-        Text key = new Text();
-        Text val = new Text();
-        Text line = new Text();
-        lineReader = new LineReader((InputStream)clientIn_, job_);
         // 3/4 Tool to Hadoop
-        while (lineReader.readLine(line) > 0) {
-          answer = line.getBytes();
-          splitKeyVal(answer, line.getLength(), key, val);
-          output.collect(key, val);
-          line.clear();
-          numRecWritten_++;
-          long now = System.currentTimeMillis();
-          if (now-lastStdoutReport > reporterOutDelay_) {
-            lastStdoutReport = now;
-            String hline = "Records R/W=" + numRecRead_ + "/" + numRecWritten_;
-            reporter.setStatus(hline);
-            logprintln(hline);
-            logflush();
+        if (!binary_) {
+          lineReader = new KeyValLineReader(clientIn_, BUFFER_SIZE);
+        }
+        if (outputQueueDepth_ > 0) {
+          readQueued();
+        } else {
+          Text key = new Text();
+          Text val = new Text();
+          while (read(key, val)) {
+            collect(key, val);
           }
         }
         if (lineReader != null) {
@@ -413,11 +428,149 @@ public abstract class PipeMapRed {
       }
     }
 
+    /** Read records into a queue, collecting them on another thread so
+     * that reading the subprocess's output goes on while the collector is
+     * busy, e.g. spilling map output.
+     */
+    void readQueued() throws Throwable {
+      OutputQueue queue = new OutputQueue(outputQueueDepth_);
+      MRCollectorThread collector = new MRCollectorThread(queue);
+      collector.start();
+      try {
+        int slot = queue.claim();
+        while (read(queue.getKey(slot), queue.getValue(slot))) {
+          queue.publish();
+          slot = queue.claim();
+        }
+      } finally {
+        queue.close();
+        collector.join();
+      }
+      if (queue.getFailure() != null) {
+        throw queue.getFailure();
+      }
+      // Waiting to put means the collector is the bottleneck; waiting to
+      // take means the subprocess is
+      reporter.incrCounter(QUEUE_COUNTER_GROUP, WAIT_COLLECTOR_COUNTER,
+                           queue.getPutWaitMillis());
+      reporter.incrCounter(QUEUE_COUNTER_GROUP, WAIT_SUBPROCESS_COUNTER,
+                           queue.getTakeWaitMillis());
+      logprintln("Output queue waits (ms): collector "
+                 + queue.getPutWaitMillis() + ", subprocess "
+                 + queue.getTakeWaitMillis());
+    }
+
+    /** Read the next record from the client, in whichever framing it uses.
+     * @return false at the end of the client's output
+     */
+    boolean read(Text key, Text val) throws IOException {
+      if (binary_) {
+        return readRecord(key, val);
+      }
+      if (!lineReader.next()) {
+        return false;
+      }
+      splitKeyVal(lineReader.getBuffer(), lineReader.getLineStart(),
+                  lineReader.getLineEnd(), key, val);
+      return true;
+    }
+
+    void collect(Text key, Text val) throws IOException {
+      output.collect(key, val);
+      numRecWritten_++;
+      long now = System.currentTimeMillis();
+      if (now-lastStdoutReport > reporterOutDelay_) {
+        lastStdoutReport = now;
+        String hline = "Records R/W=" + numRecRead_ + "/" + numRecWritten_;
+        reporter.setStatus(hline);
+        logprintln(hline);
+        logflush();
+      }
+    }
+
+    /**
+     * Read a length-prefixed key and value from the client.
+     * @return false if the client's output ended before the record began
+     * @throws IOException if it ended partway through the record
+     */
+    boolean readRecord(Text key, Text val) throws IOException {
+      int b = clientIn_.read();
+      if (b == -1) {
+        return false;
+      }
+      int keyLength = (b << 24) | (clientIn_.readUnsignedByte() << 16)
+        | clientIn_.readUnsignedShort();
+      readField(keyLength, maxRecordSize_, key);
+      readField(clientIn_.readInt(), maxRecordSize_ - keyLength, val);
+      return true;
+    }
+
+    /**
+     * Read a field of the given length, unless it would take the record past
+     * the limit, which means the client is not writing records at all.
+     */
+    void readField(int length, int limit, Text field) throws IOException {
+      if (length < 0 || length > limit) {
+        throw new IOException(corruptRecordMessage(length));
+      }
+      if (answer == null || answer.length < length) {
+        answer = new byte[Math.max(length, 1024)];
+      }
+      clientIn_.readFully(answer, 0, length);
+      field.set(answer, 0, length);
+    }
+
+    String corruptRecordMessage(int length) {
+      // The most likely culprit is text, whose first bytes were read as the
+      // length, so show them as text too
+      byte[] bytes = { (byte) (length >>> 24), (byte) (length >>> 16),
+                       (byte) (length >>> 8), (byte) length };
+      StringBuilder text = new StringBuilder();
+      for (byte b : bytes) {
+        text.append(b >= 0x20 && b < 0x7f ? (char) b : '?');
+      }
+      return "Corrupt binary output from subprocess: a field of "
+        + (length & 0xffffffffL) + " bytes (\"" + text + "\" as text) would"
+        + " make the record longer than " + maxRecordSize_ + " bytes ("
+        + StreamJob.MAX_RECORD_SIZE + "). The mapper or reducer must write"
+        + " only records to standard output; anything else it prints should"
+        + " go to standard error.";
+    }
+
     OutputCollector output;
     Reporter reporter;
+    KeyValLineReader lineReader;
     byte[] answer;
-    long lastStdoutReport = 0;
+    // written by whichever thread collects, which with an output queue is
+    // the collector thread
+    volatile long lastStdoutReport = 0;
     
+    /** Collects the records queued by the output thread. */
+    class MRCollectorThread extends Thread {
+
+      MRCollectorThread(OutputQueue queue) {
+        setDaemon(true);
+        this.queue = queue;
+      }
+
+      public void run() {
+        try {
+          int slot = 0;
+          int count;
+          while ((count = queue.take()) > 0) {
+            for (int i = 0; i < count; i++) {
+              collect(queue.getKey(slot), queue.getValue(slot));
+              slot = (slot + 1) % queue.getDepth();
+            }
+            queue.release(count);
+          }
+        } catch (Throwable th) {
+          queue.fail(th);
+        }
+      }
+
+      OutputQueue queue;
+    }
   }
 
   class MRErrorThread extends Thread {
@@ -605,32 +758,26 @@ public abstract class PipeMapRed {
   }
 
   /**
-   * Write a value to the output stream using UTF-8 encoding
-   * @param value output value
+   * Write a record to the output stream: in binary mode, as a length-prefixed
+   * key followed by a length-prefixed value; otherwise as a line, the key and
+   * value split by the separator. A null key is left out of the line.
    * @throws IOException
    */
-  void write(Object value) throws IOException {
-    byte[] bval;
-    int valSize;
-    if (value instanceof BytesWritable) {
-      BytesWritable val = (BytesWritable) value;
-      bval = val.getBytes();
-      valSize = val.getLength();
-    } else if (value instanceof Text) {
-      Text val = (Text) value;
-      bval = val.getBytes();
-      valSize = val.getLength();
+  void writeRecord(Object key, Object value, byte[] separator)
+    throws IOException {
+    if (binary_) {
+      clientOut_.writeField(key == null ? "" : key);
+      clientOut_.writeField(value);
     } else {
-      String sval = value.toString();
-      bval = sval.getBytes("UTF-8");
-      valSize = bval.length;
+      clientOut_.writeLine(key, separator, value);
     }
-    clientOut_.write(bval, 0, valSize);
   }
 
   long startTime_;
   long numRecRead_ = 0;
-  long numRecWritten_ = 0;
+  // written only by the thread collecting output, but read by the map or
+  // reduce thread for status and logging
+  volatile long numRecWritten_ = 0;
   long numRecSkipped_ = 0;
   long nextRecReadLog_ = 1;
 
@@ -650,12 +797,15 @@ public abstract class PipeMapRed {
   boolean debugFailLate_;
 
   boolean nonZeroExitIsFailure_;
+  boolean binary_;
+  int maxRecordSize_;
+  int outputQueueDepth_;
   
   Process sim;
   MROutputThread outThread_;
   String jobLog_;
   MRErrorThread errThread_;
-  DataOutputStream clientOut_;
+  RecordEncoder clientOut_;
   DataInputStream clientErr_;
   DataInputStream clientIn_;
 
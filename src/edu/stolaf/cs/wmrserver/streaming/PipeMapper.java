@@ -60,6 +60,10 @@ public class PipeMapper extends PipeMapRed implements Mapper {
   boolean getDoPipe() {
     return true;
   }
+
+  boolean getGroupedInput() {
+    return false;
+  }
   
   public void configure(JobConf job) {
     super.configure(job);
@@ -100,12 +104,7 @@ public class PipeMapper extends PipeMapRed implements Mapper {
 
       // 2/4 Hadoop to Tool
       if (numExceptions_ == 0) {
-        if (!this.ignoreKey) {
-          write(key);
-          clientOut_.write(getInputSeparator());
-        }
-        write(value);
-        clientOut_.write('\n');
+        writeRecord(this.ignoreKey ? null : key, value, getInputSeparator());
         if(skipping) {
           //flush the streams on every record input if running in skip mode
           //so that we don't buffer other records surrounding a bad record. 
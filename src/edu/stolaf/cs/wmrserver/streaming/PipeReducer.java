@@ -43,6 +43,7 @@ public class PipeReducer extends PipeMapRed implements Reducer {
   private byte[] reduceInputFieldSeparator;
   private int numOfReduceOutputKeyFields = 1;
   private boolean skipping = false;
+  private boolean grouped = false;
   
   String getPipeCommand(JobConf job) {
     String str = job.get("stream.reduce.streamprocessor");
@@ -63,6 +64,10 @@ public class PipeReducer extends PipeMapRed implements Reducer {
     return (argv != null);
   }
 
+  boolean getGroupedInput() {
+    return binary_ && job_.getBoolean(StreamJob.GROUPED_REDUCE_INPUT, false);
+  }
+
   public void configure(JobConf job) {
     super.configure(job);
     //disable the auto increment of the counter. For streaming, no of 
@@ -70,6 +75,7 @@ public class PipeReducer extends PipeMapRed implements Reducer {
     //records input.
     SkipBadRecords.setAutoIncrReducerProcCount(job, false);
     skipping = job.getBoolean("mapred.skip.on", false);
+    grouped = doPipe_ && getGroupedInput();
 
     try {
       reduceOutFieldSeparator = job_.get("stream.reduce.output.field.separator", "\t").getBytes("UTF-8");
@@ -88,6 +94,9 @@ public class PipeReducer extends PipeMapRed implements Reducer {
       startOutputThreads(output, reporter);
     }
     try {
+      if (grouped) {
+        clientOut_.writeField(key);
+      }
       while (values.hasNext()) {
         Writable val = (Writable) values.next();
         numRecRead_++;
@@ -99,15 +108,19 @@ public class PipeReducer extends PipeMapRed implements Reducer {
                                    + StringUtils.stringifyException(
                                                                     outerrThreadsThrowable));
           }
-          write(key);
-          clientOut_.write(getInputSeparator());
-          write(val);
-          clientOut_.write('\n');
+          if (grouped) {
+            clientOut_.writeField(val);
+          } else {
+            writeRecord(key, val, getInputSeparator());
+          }
         } else {
           // "identity reduce"
           output.collect(key, val);
         }
       }
+      if (grouped) {
+        clientOut_.writeInt(GROUP_END);
+      }
       if(doPipe_ && skipping) {
         //flush the streams on every record input if running in skip mode
         //so that we don't buffer other records surrounding a bad record. 
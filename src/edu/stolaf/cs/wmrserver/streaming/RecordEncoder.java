@@ -0,0 +1,192 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+
+/** Assembles the records sent to a subprocess in a reusable buffer, writing
+ * them to its standard input a batch at a time. Text and BytesWritable fields
+ * are copied as they are, and other fields are encoded as UTF-8 straight into
+ * the buffer, so that no record allocates.
+ */
+class RecordEncoder {
+
+  private OutputStream out_;
+  private byte[] buffer_;
+  private int count_;
+
+  RecordEncoder(OutputStream out, int capacity) {
+    out_ = out;
+    // room for at least a length prefix
+    buffer_ = new byte[Math.max(capacity, 4)];
+  }
+
+  /** Write a record as a line: the key and separator, unless the key is
+   * null, then the value and a newline.
+   */
+  void writeLine(Object key, byte[] separator, Object value)
+    throws IOException {
+    if (key != null) {
+      write(key, false);
+      write(separator, 0, separator.length);
+    }
+    write(value, false);
+    if (count_ == buffer_.length) {
+      flushBuffer();
+    }
+    buffer_[count_++] = '\n';
+  }
+
+  /** Write a field preceded by its length in bytes as a big-endian int.
+   */
+  void writeField(Object value) throws IOException {
+    write(value, true);
+  }
+
+  void writeInt(int v) throws IOException {
+    if (buffer_.length - count_ < 4) {
+      flushBuffer();
+    }
+    buffer_[count_++] = (byte) (v >>> 24);
+    buffer_[count_++] = (byte) (v >>> 16);
+    buffer_[count_++] = (byte) (v >>> 8);
+    buffer_[count_++] = (byte) v;
+  }
+
+  void flush() throws IOException {
+    flushBuffer();
+    out_.flush();
+  }
+
+  void close() throws IOException {
+    flushBuffer();
+    out_.close();
+  }
+
+  private void write(Object value, boolean framed) throws IOException {
+    if (value instanceof Text) {
+      Text text = (Text) value;
+      write(text.getBytes(), text.getLength(), framed);
+    } else if (value instanceof BytesWritable) {
+      BytesWritable bytes = (BytesWritable) value;
+      write(bytes.getBytes(), bytes.getLength(), framed);
+    } else {
+      encode(value.toString(), framed);
+    }
+  }
+
+  private void write(byte[] b, int length, boolean framed)
+    throws IOException {
+    if (framed) {
+      writeInt(length);
+    }
+    write(b, 0, length);
+  }
+
+  private void write(byte[] b, int off, int len) throws IOException {
+    if (len > buffer_.length - count_) {
+      flushBuffer();
+      if (len > buffer_.length) {
+        // too big to batch; pass it straight through
+        out_.write(b, off, len);
+        return;
+      }
+    }
+    System.arraycopy(b, off, buffer_, count_, len);
+    count_ += len;
+  }
+
+  /** Write a string as UTF-8, replacing unpaired surrogates with '?' as
+   * String.getBytes does.
+   */
+  private void encode(String s, boolean framed) throws IOException {
+    int length = utf8Length(s);
+    if (framed) {
+      writeInt(length);
+    }
+    if (length > buffer_.length - count_) {
+      flushBuffer();
+      if (length > buffer_.length) {
+        byte[] bytes = s.getBytes("UTF-8");
+        out_.write(bytes, 0, bytes.length);
+        return;
+      }
+    }
+
+    byte[] buf = buffer_;
+    int pos = count_;
+    int n = s.length();
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        buf[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        buf[pos++] = (byte) (0xc0 | (c >> 6));
+        buf[pos++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < n
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, s.charAt(++i));
+          buf[pos++] = (byte) (0xf0 | (cp >> 18));
+          buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+          buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+          buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+        } else {
+          buf[pos++] = (byte) '?';
+        }
+      } else {
+        buf[pos++] = (byte) (0xe0 | (c >> 12));
+        buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buf[pos++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    count_ = pos;
+  }
+
+  private static int utf8Length(String s) {
+    int n = s.length();
+    int length = n;
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x80) {
+        if (c < 0x800) {
+          length += 1;
+        } else if (Character.isSurrogate(c)) {
+          if (Character.isHighSurrogate(c) && i + 1 < n
+              && Character.isLowSurrogate(s.charAt(i + 1))) {
+            // four bytes for the pair
+            length += 2;
+            i++;
+          }
+        } else {
+          length += 2;
+        }
+      }
+    }
+    return length;
+  }
+
+  private void flushBuffer() throws IOException {
+    if (count_ > 0) {
+      out_.write(buffer_, 0, count_);
+      count_ = 0;
+    }
+  }
+}
@@ -38,6 +38,31 @@ import org.apache.hadoop.mapred.JobConf;
 public class StreamJob {
 
   protected static final Log LOG = LogFactory.getLog(StreamJob.class.getName());
+
+	/**
+	 * A JobConf key which, if true, makes the mapper and reducer exchange
+	 * records with their subprocesses as length-prefixed keys and values rather
+	 * than as lines.
+	 */
+	public static final String BINARY_RECORDS = "stream.binary.records";
+	/**
+	 * A JobConf key which, if true along with {@link #BINARY_RECORDS}, makes
+	 * the reducer pass each key to its subprocess only once per group.
+	 */
+	public static final String GROUPED_REDUCE_INPUT = "stream.reduce.input.grouped";
+	/**
+	 * A JobConf key giving the most bytes of key and value together that a
+	 * length-prefixed record read from the mapper or reducer command may have.
+	 */
+	public static final String MAX_RECORD_SIZE = "stream.binary.record.max";
+	/** The default for {@link #MAX_RECORD_SIZE}. */
+	public static final int DEFAULT_MAX_RECORD_SIZE = 0x4000000; // 64 M
+	/**
+	 * A JobConf key giving the number of records which may be queued between
+	 * reading the mapper and reducer commands' output and collecting it. If 0,
+	 * the default, each record is collected as it is read.
+	 */
+	public static final String OUTPUT_QUEUE_DEPTH = "stream.output.queue.depth";
     
   private StreamJob() { }
 	
@@ -68,6 +93,53 @@ public class StreamJob {
 		}
 	}
 
+	/**
+	 * Sets whether records are passed to and read from the mapper and reducer
+	 * commands as a 4-byte big-endian length followed by that many bytes of
+	 * key, then likewise for the value. Otherwise each record is a line with
+	 * the key and value split by a separator. The commands find out which is
+	 * in use from the WMR_BINARY environment variable.
+	 */
+	public static void setBinaryRecords(JobConf conf, boolean binary)
+	{
+		conf.setBoolean(BINARY_RECORDS, binary);
+	}
+	
+	/**
+	 * Sets whether the reducer command, when passed length-prefixed records,
+	 * is instead passed each group as its key field, then its value fields,
+	 * then a length of -1 (0xffffffff) in place of another field. The command
+	 * finds out from the WMR_GROUPED environment variable.
+	 */
+	public static void setGroupedReduceInput(JobConf conf, boolean grouped)
+	{
+		conf.setBoolean(GROUPED_REDUCE_INPUT, grouped);
+	}
+	
+	/**
+	 * Sets the most bytes of key and value together that a length-prefixed
+	 * record from the mapper or reducer command may have. A longer record is
+	 * taken as a sign that the command's output is not length-prefixed records
+	 * at all, for instance because it printed text, and fails the task.
+	 */
+	public static void setMaxRecordSize(JobConf conf, int size)
+	{
+		conf.setInt(MAX_RECORD_SIZE, size);
+	}
+	
+	/**
+	 * Sets how many records of the mapper and reducer commands' output may be
+	 * read ahead of collecting them, on another thread, so that the commands
+	 * are not held up while Hadoop spills or writes output. Each task then
+	 * counts the time spent waiting on the collector and on the command, in
+	 * the "Streaming output queue" counter group. A depth of 0 collects each
+	 * record as it is read.
+	 */
+	public static void setOutputQueueDepth(JobConf conf, int depth)
+	{
+		conf.setInt(OUTPUT_QUEUE_DEPTH, depth);
+	}
+	
 	public static String createJobJar(JobConf conf, List extraFiles)
 		throws IOException
 	{
@@ -21,12 +21,19 @@
 package edu.stolaf.cs.wmrserver.streaming;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.util.LineReader;
 
 public class StreamKeyValUtil {
 
+  /** Spans shorter than this are scanned a byte at a time. */
+  private static final int WORD_SCAN_MIN = 64;
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
   /**
    * Find the first occured tab in a UTF-8 encoded string
    * @param utf a byte array containing a UTF-8 encoded string
@@ -52,6 +59,65 @@ public class StreamKeyValUtil {
         utf.length, (byte)'\t', 1);
   }
 
+  /**
+   * Find the first occurrence of the given bytes b in a UTF-8 encoded string.
+   * Candidates are found by scanning for the first byte of b, a long word
+   * (eight bytes) at a time over long spans, and only they are compared with
+   * the rest of b.
+   * @param utf a byte array containing a UTF-8 encoded string
+   * @param start starting offset
+   * @param end ending position
+   * @param b the bytes to find
+   * @return position that first byte occures otherwise -1
+   */
+  public static int findBytes(byte [] utf, int start, int end, byte[] b) {
+    int last = end - b.length;
+    if (b.length == 0) {
+      return (start <= end) ? start : -1;
+    }
+    for (int i = start; i <= last; i++) {
+      i = findByteFrom(utf, i, last + 1, b[0]);
+      if (i == -1) {
+        return -1;
+      }
+      int j = 1;
+      while (j < b.length && utf[i + j] == b[j]) {
+        j++;
+      }
+      if (j == b.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the first occurrence of the byte b from start to end, testing all
+   * eight bytes of a long word at once for spans long enough to repay it.
+   */
+  private static int findByteFrom(byte[] utf, int start, int end, byte b) {
+    int i = start;
+    if (end - start >= WORD_SCAN_MIN) {
+      ByteBuffer words = ByteBuffer.wrap(utf).order(ByteOrder.LITTLE_ENDIAN);
+      long pattern = (b & 0xffL) * ONES;
+      for (; i + 8 <= end; i += 8) {
+        // A byte of x is zero where the word matched b; the expression sets
+        // the high bit of the first such byte (and maybe later ones)
+        long x = words.getLong(i) ^ pattern;
+        long found = (x - ONES) & ~x & HIGHS;
+        if (found != 0) {
+          return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+      }
+    }
+    for (; i < end; i++) {
+      if (utf[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   /**
    * split a UTF-8 byte array into key and value 
    * assuming that the delimilator is at splitpos. 
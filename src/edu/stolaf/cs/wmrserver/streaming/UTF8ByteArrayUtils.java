@@ -31,6 +31,7 @@ import org.apache.hadoop.util.LineReader;
  * {@link StreamKeyValUtil} instead
  */
 
+@Deprecated
 public class UTF8ByteArrayUtils {
   /**
    * Find the first occured tab in a UTF-8 encoded string
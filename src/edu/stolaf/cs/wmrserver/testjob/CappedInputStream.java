@@ -17,44 +17,149 @@ package edu.stolaf.cs.wmrserver.testjob;
 
 import java.io.InputStream;
 import java.io.IOException;
-import org.apache.commons.io.input.CountingInputStream;
 
-public class CappedInputStream extends CountingInputStream
+/**
+ * Passes through the lines of a stream up to a maximum number of bytes and,
+ * optionally, a maximum number of lines. Only whole lines are passed through:
+ * a line which would cross the byte limit is dropped, and the stream ends
+ * after the last line which fits.
+ */
+public class CappedInputStream extends InputStream
 {
+	private InputStream _input;
 	private long _maximumCount;
+	/** The most lines to pass through, or 0 for no limit. */
+	private long _maximumRecords;
+
+	/** The number of bytes read from the underlying stream. */
+	private long _count;
+	private long _records;
+	/** Whether no more bytes will be made available to read. */
+	private boolean _done;
+
+	/**
+	 * Bytes read from the underlying stream but not yet passed through. Those
+	 * between <code>_start</code> and <code>_ready</code> end in a newline
+	 * (or the end of the input) and may be passed through; the rest are the
+	 * beginning of a line which may yet cross the limit.
+	 */
+	private byte[] _buffer;
+	private int _start, _ready, _end;
 
 	public CappedInputStream(InputStream input, long maximumCount)
 	{
-		super(input);
+		this(input, maximumCount, 0);
+	}
+
+	public CappedInputStream(InputStream input, long maximumCount,
+			long maximumRecords)
+	{
+		_input = input;
 		_maximumCount = maximumCount;
+		_maximumRecords = maximumRecords;
+		_buffer = new byte[(int)Math.min(maximumCount + 1, 8192)];
 	}
 
 	public int read() throws IOException
 	{
-		long count = getByteCount();
-		if (count < _maximumCount)
-			return super.read();
-		return 0;
+		byte[] b = new byte[1];
+		if (read(b, 0, 1) == -1)
+			return -1;
+		return b[0] & 0xff;
 	}
 
 	public int read(byte[] buffer) throws IOException
 	{
-		long count = getByteCount();
-		if (count >= _maximumCount)
-			return 0;
-		else if ((count + buffer.length) <= _maximumCount)
-			return super.read(buffer);
-		return super.read(buffer, 0, (int)(_maximumCount - count));
+		return read(buffer, 0, buffer.length);
 	}
 
 	public int read(byte[] buffer, int offset, int length) throws IOException
 	{
-		long count = getByteCount();
-		if (count >= _maximumCount)
+		if (length == 0)
 			return 0;
-		else if ((count + length) <= _maximumCount)
-			return super.read(buffer, offset, length);
-		return super.read(buffer, offset, (int)(_maximumCount - count));
+
+		while (_start == _ready)
+		{
+			if (!fill())
+				return -1;
+		}
+
+		int count = Math.min(length, _ready - _start);
+		System.arraycopy(_buffer, _start, buffer, offset, count);
+		_start += count;
+		return count;
 	}
-}
 
+	public int available()
+	{
+		return _ready - _start;
+	}
+
+	public void close() throws IOException
+	{
+		_input.close();
+	}
+
+	/**
+	 * Reads more of the underlying stream into the buffer.
+	 *
+	 * @return False if no more bytes will be made available.
+	 */
+	private boolean fill() throws IOException
+	{
+		if (_done)
+			return false;
+
+		// Keep only the partial line
+		if (_start > 0)
+		{
+			System.arraycopy(_buffer, _start, _buffer, 0, _end - _start);
+			_end -= _start;
+			_ready -= _start;
+			_start = 0;
+		}
+		if (_end == _buffer.length)
+		{
+			byte[] buffer = new byte[_buffer.length * 2];
+			System.arraycopy(_buffer, 0, buffer, 0, _end);
+			_buffer = buffer;
+		}
+
+		// Read past the limit by at most a byte, to tell whether the input
+		// ends right at it
+		long remaining = _maximumCount - _count;
+		int length = (int)Math.min(_buffer.length - _end, Math.max(remaining, 1));
+		int read = _input.read(_buffer, _end, length);
+		if (read == -1)
+		{
+			// The input ended, so a final unterminated line is whole
+			_ready = _end;
+			_done = true;
+			return _ready > _start;
+		}
+		if (read > remaining)
+		{
+			// Drop whatever partial line crosses the limit
+			_done = true;
+			return _ready > _start;
+		}
+
+		_count += read;
+		int end = _end + read;
+		for (int i = _end; i < end; i++)
+		{
+			if (_buffer[i] == '\n')
+			{
+				_ready = i + 1;
+				_records++;
+				if (_maximumRecords > 0 && _records >= _maximumRecords)
+				{
+					_done = true;
+					break;
+				}
+			}
+		}
+		_end = end;
+		return true;
+	}
+}
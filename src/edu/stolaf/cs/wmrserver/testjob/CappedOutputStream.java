@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Passes through at most a certain number of bytes, silently dropping the
+ * rest. A notice is written in their place the first time bytes are dropped.
+ */
+public class CappedOutputStream extends CountingOutputStream
+{
+	private long _maximumCount;
+	private byte[] _notice;
+	private boolean _capped;
+
+	public CappedOutputStream(OutputStream output, long maximumCount,
+			byte[] notice)
+	{
+		super(output);
+		_maximumCount = maximumCount;
+		_notice = notice;
+	}
+
+	public void write(int b) throws IOException
+	{
+		if (getByteCount() < _maximumCount)
+			super.write(b);
+		else
+			cap();
+	}
+
+	public void write(byte[] buffer) throws IOException
+	{
+		write(buffer, 0, buffer.length);
+	}
+
+	public void write(byte[] buffer, int offset, int length) throws IOException
+	{
+		long count = getByteCount();
+		if ((count + length) <= _maximumCount)
+			super.write(buffer, offset, length);
+		else
+		{
+			if (count < _maximumCount)
+				super.write(buffer, offset, (int)(_maximumCount - count));
+			cap();
+		}
+	}
+
+	public boolean isCapped()
+	{
+		return _capped;
+	}
+
+	private void cap() throws IOException
+	{
+		if (!_capped)
+		{
+			_capped = true;
+			out.write(_notice);
+		}
+	}
+}
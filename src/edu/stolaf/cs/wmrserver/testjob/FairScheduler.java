@@ -0,0 +1,191 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableFuture;
+
+
+/**
+ * Runs test jobs on a fixed number of worker threads, taking queued jobs from
+ * each user in turn so that one user's jobs can't hold up everyone else's.
+ */
+public class FairScheduler
+{
+	private static class QueuedJob
+	{
+		public long id;
+		public RunnableFuture<?> task;
+
+		public QueuedJob(long id, RunnableFuture<?> task)
+		{
+			this.id = id;
+			this.task = task;
+		}
+	}
+
+	/** The jobs waiting to run, by user. Users with no jobs are removed. */
+	private HashMap<String, LinkedList<QueuedJob>> _queues;
+	/** The users with waiting jobs, in the order they will next be served. */
+	private LinkedList<String> _turns;
+	/** The most jobs a single user may have waiting. */
+	private int _maxQueuedPerUser;
+
+
+	public FairScheduler(int workers, int maxQueuedPerUser)
+	{
+		_queues = new HashMap<String, LinkedList<QueuedJob>>();
+		_turns = new LinkedList<String>();
+		_maxQueuedPerUser = maxQueuedPerUser;
+
+		for (int i = 0; i < workers; i++)
+		{
+			Thread worker = new Thread("test-job-worker-" + i) {
+				public void run()
+				{
+					while (true)
+					{
+						try
+						{
+							take().run();
+						}
+						catch (InterruptedException ex)
+						{
+							return;
+						}
+						catch (RuntimeException ex)
+						{
+							// Don't let one bad job take down the worker
+						}
+					}
+				}
+			};
+			worker.setDaemon(true);
+			worker.start();
+		}
+	}
+
+	/**
+	 * Queues a job to be run.
+	 *
+	 * @return False if the user already has as many jobs waiting as allowed,
+	 *         in which case the job is not queued.
+	 */
+	public synchronized boolean submit(String user, long id,
+			RunnableFuture<?> task)
+	{
+		LinkedList<QueuedJob> queue = _queues.get(user);
+		if (queue == null)
+		{
+			queue = new LinkedList<QueuedJob>();
+			_queues.put(user, queue);
+			_turns.addLast(user);
+		}
+		else
+		{
+			removeFinished(queue);
+			if (queue.size() >= _maxQueuedPerUser)
+				return false;
+		}
+
+		queue.addLast(new QueuedJob(id, task));
+		notify();
+		return true;
+	}
+
+	/**
+	 * Gets how many jobs will be started before the given one, or -1 if the
+	 * job is not waiting.
+	 */
+	public synchronized int getQueuePosition(long id)
+	{
+		// Play out the turns which would be taken from here on
+		ArrayList<Iterator<QueuedJob>> queues =
+			new ArrayList<Iterator<QueuedJob>>(_turns.size());
+		for (String user : _turns)
+			queues.add(_queues.get(user).iterator());
+
+		int position = 0;
+		while (!queues.isEmpty())
+		{
+			Iterator<Iterator<QueuedJob>> turn = queues.iterator();
+			while (turn.hasNext())
+			{
+				Iterator<QueuedJob> queue = turn.next();
+				QueuedJob job = nextUnfinished(queue);
+				if (job == null)
+				{
+					turn.remove();
+					continue;
+				}
+
+				if (job.id == id)
+					return position;
+				position++;
+			}
+		}
+
+		return -1;
+	}
+
+	private synchronized RunnableFuture<?> take() throws InterruptedException
+	{
+		while (true)
+		{
+			while (_turns.isEmpty())
+				wait();
+
+			// Take the next user's oldest job, then send them to the back
+			String user = _turns.removeFirst();
+			LinkedList<QueuedJob> queue = _queues.get(user);
+			QueuedJob job = queue.removeFirst();
+			if (queue.isEmpty())
+				_queues.remove(user);
+			else
+				_turns.addLast(user);
+
+			// Killed jobs don't take a turn
+			if (!job.task.isDone())
+				return job.task;
+		}
+	}
+
+	private static QueuedJob nextUnfinished(Iterator<QueuedJob> queue)
+	{
+		while (queue.hasNext())
+		{
+			QueuedJob job = queue.next();
+			if (!job.task.isDone())
+				return job;
+		}
+		return null;
+	}
+
+	private static void removeFinished(LinkedList<QueuedJob> queue)
+	{
+		Iterator<QueuedJob> it = queue.iterator();
+		while (it.hasNext())
+		{
+			Future<?> task = it.next().task;
+			if (task.isDone())
+				it.remove();
+		}
+	}
+}
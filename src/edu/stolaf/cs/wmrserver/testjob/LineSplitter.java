@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+
+/**
+ * Splits the bytes written to it into lines. Lines end with a newline, carriage
+ * return, or both, as Streaming reads them; the line endings themselves are
+ * dropped. A last line without an ending is passed on when the stream is
+ * closed.
+ */
+abstract class LineSplitter extends OutputStream
+{
+	private byte[] _line = new byte[256];
+	/** The length of the line read so far. */
+	private int _length;
+	/** Whether the last byte was a carriage return. */
+	private boolean _afterReturn;
+	private boolean _closed;
+
+	/**
+	 * Handles a complete line. The bytes are only valid until this returns.
+	 */
+	protected abstract void line(byte[] bytes, int length) throws IOException;
+
+	public void write(int b) throws IOException
+	{
+		write(new byte[] { (byte)b }, 0, 1);
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		if (_closed)
+			throw new IOException("Stream closed.");
+
+		int end = off + len;
+		for (int i = off; i < end; i++)
+		{
+			byte c = b[i];
+			if (c == '\n' || c == '\r')
+			{
+				// Treat CR LF as a single line ending
+				if (!(c == '\n' && _afterReturn))
+					endLine();
+				_afterReturn = (c == '\r');
+				continue;
+			}
+			_afterReturn = false;
+
+			if (_length == _line.length)
+				_line = Arrays.copyOf(_line, _length * 2);
+			_line[_length++] = c;
+		}
+	}
+
+	public void close() throws IOException
+	{
+		if (!_closed && _length > 0)
+			endLine();
+		_closed = true;
+	}
+
+	/**
+	 * Determines whether part of a line has been written without its ending.
+	 */
+	public boolean hasPartialLine()
+	{
+		return _length > 0;
+	}
+
+	private void endLine() throws IOException
+	{
+		line(_line, _length);
+		_length = 0;
+	}
+}
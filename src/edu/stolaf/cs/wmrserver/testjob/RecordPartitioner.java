@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Partitioner;
+import org.apache.hadoop.mapred.lib.KeyFieldBasedPartitioner;
+
+
+/**
+ * Splits the output of a mapper into lines and adds each to the sorter for the
+ * reducer it goes to. Records are assigned to reducers by the hash of their
+ * keys, as Hadoop's HashPartitioner assigns Text keys, or for numeric sorts by
+ * the {@link KeyFieldBasedPartitioner} with the same options as jobs on the
+ * cluster use, so that test jobs group records among reducers the same way
+ * jobs on the cluster do.
+ *
+ * Several partitioners, one for each mapper, may add to the same sorters at
+ * once.
+ */
+public class RecordPartitioner extends LineSplitter
+{
+	private RecordSorter[] _sorters;
+	/** The partitioner for numeric sorts, or null to hash keys' bytes. */
+	private Partitioner<Text, Text> _partitioner;
+	private Text _key;
+
+	/**
+	 * @param numeric  Whether keys are sorted numerically, which jobs on the
+	 *                 cluster partition differently.
+	 */
+	public RecordPartitioner(Configuration conf, boolean numeric,
+			RecordSorter[] sorters)
+	{
+		_sorters = sorters;
+
+		if (numeric)
+		{
+			JobConf jobConf = new JobConf(conf);
+			jobConf.setKeyFieldPartitionerOptions("-n");
+			KeyFieldBasedPartitioner<Text, Text> partitioner =
+				new KeyFieldBasedPartitioner<Text, Text>();
+			partitioner.configure(jobConf);
+			_partitioner = partitioner;
+			_key = new Text();
+		}
+	}
+
+	protected void line(byte[] bytes, int length) throws IOException
+	{
+		int partition;
+		if (_partitioner == null)
+			partition = getPartition(bytes, length, _sorters.length);
+		else
+		{
+			_key.set(bytes, 0, getKeyLength(bytes, length));
+			partition = _partitioner.getPartition(_key, null, _sorters.length);
+		}
+		_sorters[partition].add(bytes, length);
+	}
+
+	/**
+	 * Gets the partition of a line, whose key is everything before the first
+	 * tab, as Streaming splits it, by the hash of the key's bytes.
+	 */
+	public static int getPartition(byte[] line, int length, int partitions)
+	{
+		if (partitions == 1)
+			return 0;
+
+		return (WritableComparator.hashBytes(line, getKeyLength(line, length)) &
+				Integer.MAX_VALUE) % partitions;
+	}
+
+	private static int getKeyLength(byte[] line, int length)
+	{
+		int tab = 0;
+		while (tab < length && line[tab] != '\t')
+			tab++;
+		return tab;
+	}
+}
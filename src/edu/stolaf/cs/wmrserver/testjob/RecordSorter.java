@@ -0,0 +1,418 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.lib.KeyFieldBasedComparator;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+
+/**
+ * Sorts mapper output by key the way Hadoop Streaming does between the map and
+ * reduce phases, so that test jobs see their records in the same order as jobs
+ * on the cluster. Records are sorted in memory, and spilled to disk in sorted
+ * runs only once they exceed a memory limit.
+ *
+ * Output is written to the stream returned by {@link #getInput()} as it is
+ * produced, and then {@link #sort()} is called once to read it back in order.
+ */
+public class RecordSorter
+{
+	private static final byte[] SEPARATOR = { '\t' };
+	private static final byte[] NEWLINE = { '\n' };
+
+	private RawComparator<?> _comparator;
+	private File _tempDir;
+	/** The most bytes of records to hold in memory before spilling. */
+	private int _memoryLimit;
+
+	/** Serialized records, each a key followed by a value, both as Text. */
+	private DataOutputBuffer _data;
+	/** The offsets of each record's key and value and the record's end. */
+	private int[] _keyStarts, _valueStarts, _ends;
+	/** The order of the records, as indices into the offset arrays. */
+	private int[] _order;
+	private int _count;
+	/** Sorted runs already spilled to disk. */
+	private ArrayList<File> _runs;
+	/** The number of records added, including those spilled. */
+	private long _total;
+
+	private LineSplitter _input;
+
+
+	/**
+	 * @param numeric  Whether to sort keys numerically, as with the
+	 *                 <code>-n</code> option of Hadoop's
+	 *                 {@link KeyFieldBasedComparator}, rather than by bytes.
+	 */
+	public RecordSorter(Configuration conf, boolean numeric, File tempDir)
+	{
+		_tempDir = tempDir;
+		_memoryLimit = conf.getInt("wmr.tests.sort.memory", 0x1000000 /* 16 M */);
+
+		if (numeric)
+		{
+			JobConf jobConf = new JobConf(conf);
+			jobConf.setKeyFieldComparatorOptions("-n");
+			KeyFieldBasedComparator<?, ?> comparator =
+				new KeyFieldBasedComparator<Object, Object>();
+			comparator.configure(jobConf);
+			_comparator = comparator;
+		}
+		else
+			_comparator = WritableComparator.get(Text.class);
+
+		_runs = new ArrayList<File>();
+		_input = new LineSplitter() {
+			protected void line(byte[] bytes, int length) throws IOException
+			{
+				add(bytes, length);
+			}
+		};
+		reset();
+	}
+
+	/**
+	 * Gets the stream to which lines to be sorted are written. Lines end with
+	 * a newline, carriage return, or both, as Streaming reads them. Each
+	 * line's key is everything before the first tab and its value everything
+	 * after it.
+	 */
+	public OutputStream getInput()
+	{
+		return _input;
+	}
+
+	/**
+	 * Determines whether no lines have been written.
+	 */
+	public boolean isEmpty()
+	{
+		return _total == 0 && !_input.hasPartialLine();
+	}
+
+	/**
+	 * Sorts the lines written so far by key. No more lines may be written
+	 * afterward.
+	 *
+	 * @return A stream of the sorted lines, each with a tab between its key
+	 *         and value as Streaming writes them to the reducer.
+	 */
+	public InputStream sort() throws IOException
+	{
+		try
+		{
+			_input.close();
+
+			// Sort what's left in memory
+			sortInMemory();
+			if (_runs.isEmpty())
+			{
+				ByteArrayOutputStream output =
+					new ByteArrayOutputStream(_data.getLength() + _count);
+				writeSorted(output);
+				return new ByteArrayInputStream(output.toByteArray());
+			}
+
+			_runs.add(spill());
+			return merge(_runs);
+		}
+		catch (IOException ex)
+		{
+			discard();
+			throw ex;
+		}
+		finally
+		{
+			// Don't hold on to the records once they have been sorted
+			_data = null;
+		}
+	}
+
+	/**
+	 * Deletes any records spilled to disk, for when they will not be sorted.
+	 */
+	public void discard()
+	{
+		for (File run : _runs)
+			run.delete();
+		_runs.clear();
+		_data = null;
+	}
+
+	private void reset()
+	{
+		_data = new DataOutputBuffer();
+		_count = 0;
+		if (_order == null)
+		{
+			_keyStarts = new int[1024];
+			_valueStarts = new int[1024];
+			_ends = new int[1024];
+			_order = new int[1024];
+		}
+	}
+
+	/**
+	 * Adds a line as a record. Lines may be added from several threads at
+	 * once, for instance by a {@link RecordPartitioner} for each of several
+	 * mappers.
+	 */
+	synchronized void add(byte[] bytes, int length) throws IOException
+	{
+		if (_count == _order.length)
+		{
+			int capacity = _count * 2;
+			_keyStarts = Arrays.copyOf(_keyStarts, capacity);
+			_valueStarts = Arrays.copyOf(_valueStarts, capacity);
+			_ends = Arrays.copyOf(_ends, capacity);
+			_order = Arrays.copyOf(_order, capacity);
+		}
+
+		// Split on the first tab, as Streaming does
+		int tab = 0;
+		while (tab < length && bytes[tab] != '\t')
+			tab++;
+		int valueStart = Math.min(tab + 1, length);
+
+		_keyStarts[_count] = _data.getLength();
+		WritableUtils.writeVInt(_data, tab);
+		_data.write(bytes, 0, tab);
+		_valueStarts[_count] = _data.getLength();
+		WritableUtils.writeVInt(_data, length - valueStart);
+		_data.write(bytes, valueStart, length - valueStart);
+		_ends[_count] = _data.getLength();
+
+		_order[_count] = _count;
+		_count++;
+		_total++;
+
+		if (_data.getLength() >= _memoryLimit)
+		{
+			_runs.add(spill());
+			reset();
+		}
+	}
+
+	private void writeSorted(OutputStream output) throws IOException
+	{
+		byte[] data = _data.getData();
+		for (int i = 0; i < _count; i++)
+		{
+			int record = _order[i];
+			writeText(output, data, _keyStarts[record]);
+			output.write(SEPARATOR);
+			writeText(output, data, _valueStarts[record]);
+			output.write(NEWLINE);
+		}
+	}
+
+	/**
+	 * Sorts the records in memory and writes them, still serialized, to a
+	 * temporary file.
+	 */
+	private File spill() throws IOException
+	{
+		sortInMemory();
+
+		File run = File.createTempFile("sort-", "-run", _tempDir);
+		OutputStream output = null;
+		try
+		{
+			output = new BufferedOutputStream(new FileOutputStream(run));
+			byte[] data = _data.getData();
+			for (int i = 0; i < _count; i++)
+			{
+				int record = _order[i];
+				output.write(data, _keyStarts[record],
+						_ends[record] - _keyStarts[record]);
+			}
+			output.close();
+		}
+		catch (IOException ex)
+		{
+			IOUtils.closeQuietly(output);
+			run.delete();
+			throw ex;
+		}
+		return run;
+	}
+
+	/**
+	 * Merges sorted runs into a single temporary file, deleting the runs.
+	 *
+	 * @return A stream of the merged file, which deletes the file when closed.
+	 */
+	private InputStream merge(ArrayList<File> runs) throws IOException
+	{
+		final File merged = File.createTempFile("sort-", "-merged", _tempDir);
+		PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size());
+		OutputStream output = null;
+		try
+		{
+			for (File file : runs)
+			{
+				Run run = new Run(file);
+				if (run.next())
+					queue.add(run);
+				else
+					run.close();
+			}
+
+			output = new BufferedOutputStream(new FileOutputStream(merged));
+			while (!queue.isEmpty())
+			{
+				Run run = queue.poll();
+				run.write(output);
+				if (run.next())
+					queue.add(run);
+				else
+					run.close();
+			}
+			output.close();
+		}
+		catch (IOException ex)
+		{
+			IOUtils.closeQuietly(output);
+			merged.delete();
+			throw ex;
+		}
+		finally
+		{
+			for (Run run : queue)
+				run.close();
+			for (File file : runs)
+				file.delete();
+		}
+
+		return new FileInputStream(merged) {
+			public void close() throws IOException
+			{
+				super.close();
+				merged.delete();
+			}
+		};
+	}
+
+	private void sortInMemory()
+	{
+		// QuickSort rejects an empty range
+		if (_count > 1)
+			new QuickSort().sort(new Sortable(), 0, _count);
+	}
+
+	/**
+	 * Writes the bytes of a serialized Text.
+	 */
+	private static void writeText(OutputStream output, byte[] data, int start)
+		throws IOException
+	{
+		int prefix = WritableUtils.decodeVIntSize(data[start]);
+		int length = (int)WritableComparator.readVLong(data, start);
+		output.write(data, start + prefix, length);
+	}
+
+
+	private class Sortable implements IndexedSortable
+	{
+		public int compare(int i, int j)
+		{
+			int a = _order[i], b = _order[j];
+			byte[] data = _data.getData();
+			return _comparator.compare(
+					data, _keyStarts[a], _valueStarts[a] - _keyStarts[a],
+					data, _keyStarts[b], _valueStarts[b] - _keyStarts[b]);
+		}
+
+		public void swap(int i, int j)
+		{
+			int temp = _order[i];
+			_order[i] = _order[j];
+			_order[j] = temp;
+		}
+	}
+
+	/**
+	 * A sorted run being read back for merging.
+	 */
+	private class Run implements Comparable<Run>
+	{
+		private DataInputStream _input;
+		private Text _key, _value;
+		/** The current key, serialized for the comparator. */
+		private DataOutputBuffer _rawKey;
+
+		public Run(File file) throws IOException
+		{
+			_input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)));
+			_key = new Text();
+			_value = new Text();
+			_rawKey = new DataOutputBuffer();
+		}
+
+		public boolean next() throws IOException
+		{
+			try
+			{
+				_key.readFields(_input);
+			}
+			catch (EOFException ex)
+			{
+				return false;
+			}
+			_value.readFields(_input);
+
+			_rawKey.reset();
+			_key.write(_rawKey);
+			return true;
+		}
+
+		public void write(OutputStream output) throws IOException
+		{
+			output.write(_key.getBytes(), 0, _key.getLength());
+			output.write(SEPARATOR);
+			output.write(_value.getBytes(), 0, _value.getLength());
+			output.write(NEWLINE);
+		}
+
+		public int compareTo(Run other)
+		{
+			return _comparator.compare(
+					_rawKey.getData(), 0, _rawKey.getLength(),
+					other._rawKey.getData(), 0, other._rawKey.getLength());
+		}
+
+		public void close()
+		{
+			IOUtils.closeQuietly(_input);
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+
+import edu.stolaf.cs.wmrserver.AggregateInputStream;
+
+/**
+ * Reads a sample of the lines of a set of files, rather than just the first
+ * lines of the first file. The sample is made of chunks of whole lines, taken
+ * at evenly spaced positions across all of the files, whose sizes add up to
+ * at most a given number of bytes. Each chunk is an equal share of that, but
+ * extends past its share to finish a line longer than it, as long as the
+ * total stays within the limit. A file which doesn't end in a newline is given
+ * one, counted against the limit, unless it is the last. If the files are no
+ * bigger than the limit, they are read in full (less any lines which no longer
+ * fit once given newlines); if the sample turns out empty, they are read from
+ * the start, as if not sampled.
+ */
+public class SampledInputStream extends InputStream
+{
+	private FileSystem _fs;
+	private FileStatus[] _files;
+	/** The total size of all of the files. */
+	private long _totalSize;
+	private long _maximumCount;
+	private int _samples;
+	private int _sampleSize;
+	/** Whether the files are small enough to be read in full. */
+	private boolean _whole;
+
+	/** The number of samples already read. */
+	private int _sample;
+	/** The number of bytes in the samples already read. */
+	private long _sampled;
+	/**
+	 * The position, across all of the files, just past the last sample. The
+	 * next sample starts no earlier than this.
+	 */
+	private long _position;
+
+	private FSDataInputStream _currentStream;
+	private int _currentIndex;
+
+	/** The current sample. */
+	private byte[] _buffer;
+	private int _start, _end;
+
+	/** The files read from the start, if sampling found no whole lines. */
+	private InputStream _head;
+
+	public SampledInputStream(FileSystem fs, FileStatus[] files, long maximumCount,
+			int samples)
+	{
+		_fs = fs;
+		_files = files;
+		_maximumCount = maximumCount;
+		for (FileStatus file : files)
+			_totalSize += file.getLen();
+
+		_whole = (_totalSize <= maximumCount);
+		if (_whole)
+		{
+			// Read everything, a file at a time
+			_samples = files.length;
+			_sampleSize = (int)Math.min(maximumCount, Integer.MAX_VALUE);
+		}
+		else
+		{
+			_samples = Math.max(samples, 1);
+			_sampleSize = (int)Math.min(maximumCount / _samples, Integer.MAX_VALUE);
+		}
+
+		_currentIndex = -1;
+		_buffer = new byte[0];
+	}
+
+	public int read() throws IOException
+	{
+		byte[] b = new byte[1];
+		if (read(b, 0, 1) == -1)
+			return -1;
+		return b[0] & 0xff;
+	}
+
+	public int read(byte[] b) throws IOException
+	{
+		return read(b, 0, b.length);
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if (len == 0)
+			return 0;
+
+		while (_start == _end)
+		{
+			if (_head != null)
+				return _head.read(b, off, len);
+			if (!nextSample())
+				return -1;
+		}
+
+		int count = Math.min(len, _end - _start);
+		System.arraycopy(_buffer, _start, b, off, count);
+		_start += count;
+		return count;
+	}
+
+	public void close() throws IOException
+	{
+		if (_head != null)
+		{
+			_head.close();
+			_head = null;
+		}
+		if (_currentStream != null)
+		{
+			_currentStream.close();
+			_currentStream = null;
+			_currentIndex = -1;
+		}
+	}
+
+	/**
+	 * Reads the next sample into the buffer.
+	 *
+	 * @return False if there are no more samples.
+	 */
+	private boolean nextSample() throws IOException
+	{
+		if (_sample == _samples)
+		{
+			// Lines longer than the whole limit leave nothing to sample, so
+			// fall back on the start of the input
+			if (_sampled == 0 && !_whole && _head == null)
+			{
+				close();
+				_head = new AggregateInputStream(_fs, _files);
+				return true;
+			}
+			return false;
+		}
+
+		// Find the file containing the sample's position
+		long target;
+		if (_whole)
+			target = startOf(_sample);
+		else
+			target = _totalSize * _sample / _samples;
+		target = Math.max(target, _position);
+		_sample++;
+		if (target >= _totalSize)
+			return true;
+
+		int index = 0;
+		long fileStart = 0;
+		while (fileStart + _files[index].getLen() <= target)
+		{
+			fileStart += _files[index].getLen();
+			index++;
+		}
+		long offset = target - fileStart;
+		long fileLength = _files[index].getLen();
+
+		// Unless the sample picks up where the last left off, it most likely
+		// starts partway through a line, so skip to the start of the next one
+		FSDataInputStream stream = open(index);
+		if (offset > 0 && target != _position)
+		{
+			offset--;
+			stream.seek(offset);
+			int b;
+			while ((b = stream.read()) != -1)
+			{
+				offset++;
+				if (b == '\n')
+					break;
+			}
+		}
+		else
+			stream.seek(offset);
+
+		// Read as much as fits in the sample, then drop any partial line at
+		// the end unless it ends the file
+		long budget = Math.max(_maximumCount - _sampled, 0);
+		long available = Math.max(fileLength - offset, 0);
+		int length = (int)Math.min(Math.min(_sampleSize, available), budget);
+		int chunk = Math.max(length, 4096);
+		ensureCapacity(length + 1, 0);
+		stream.readFully(_buffer, 0, length);
+
+		// If not even one line fits, keep reading until it ends, as long as
+		// it stays within the limit
+		int lastNewline = lastNewline(0, length);
+		while (lastNewline == -1 && length < available && length < budget)
+		{
+			int more = (int)Math.min(Math.min(chunk, available - length),
+					budget - length);
+			ensureCapacity(length + more + 1, length);
+			stream.readFully(_buffer, length, more);
+			lastNewline = lastNewline(length, length + more);
+			length += more;
+		}
+
+		_start = 0;
+		_end = length;
+		boolean endOfFile = (offset + length == fileLength);
+		if (endOfFile && length > 0 && _buffer[length - 1] != '\n' &&
+		    fileStart + fileLength < _totalSize)
+		{
+			// Don't run into the next file's first line, but only if there is
+			// room for the newline; otherwise, the line doesn't fit
+			if (length < budget)
+				_buffer[_end++] = '\n';
+			else
+				endOfFile = false;
+		}
+		if (!endOfFile)
+			_end = lastNewline + 1;
+
+		_sampled += _end;
+		_position = fileStart + offset + (endOfFile ? length : _end);
+		return true;
+	}
+
+	/**
+	 * Grows the buffer to at least the given capacity, keeping the given
+	 * number of bytes at its start.
+	 */
+	private void ensureCapacity(int capacity, int keep)
+	{
+		if (_buffer.length < capacity)
+		{
+			byte[] buffer = new byte[Math.max(capacity, _buffer.length * 2)];
+			System.arraycopy(_buffer, 0, buffer, 0, keep);
+			_buffer = buffer;
+		}
+	}
+
+	/**
+	 * Finds the last newline in the buffer between the given positions.
+	 *
+	 * @return The newline's position, or -1 if there is none.
+	 */
+	private int lastNewline(int start, int end)
+	{
+		for (int i = end - 1; i >= start; i--)
+		{
+			if (_buffer[i] == '\n')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the position, across all of the files, at which a file starts.
+	 */
+	private long startOf(int index)
+	{
+		long start = 0;
+		for (int i = 0; i < index; i++)
+			start += _files[i].getLen();
+		return start;
+	}
+
+	private FSDataInputStream open(int index) throws IOException
+	{
+		if (index != _currentIndex)
+		{
+			close();
+			_currentStream = _fs.open(_files[index].getPath());
+			_currentIndex = index;
+		}
+		return _currentStream;
+	}
+}
@@ -24,6 +24,9 @@ public class TestJobResult
 {
 	TransformResult _mapResult;
 	TransformResult _reduceResult;
+	boolean _killed;
+	long _startTime;
+	long _finishTime;
 	
 	public TestJobResult() { }
 	
@@ -43,6 +46,51 @@ public class TestJobResult
 		return _reduceResult;
 	}
 	
+	public void setKilled(boolean killed) {
+		_killed = killed;
+	}
+	
+	/**
+	 * Determines whether the job was killed, in which case it has no results
+	 * for its transforms.
+	 */
+	public boolean isKilled() {
+		return _killed;
+	}
+	
+	public void setStartTime(long startTime) {
+		_startTime = startTime;
+	}
+	
+	/**
+	 * Gets when the job started running, in milliseconds since the epoch, or 0
+	 * if that is not known.
+	 */
+	public long getStartTime() {
+		return _startTime;
+	}
+	
+	public void setFinishTime(long finishTime) {
+		_finishTime = finishTime;
+	}
+	
+	/**
+	 * Gets when the job finished, in milliseconds since the epoch.
+	 */
+	public long getFinishTime() {
+		return _finishTime;
+	}
+	
+	/**
+	 * Deletes the temporary files holding the output of the transforms.
+	 */
+	public void delete() {
+		if (_mapResult != null)
+			_mapResult.delete();
+		if (_reduceResult != null)
+			_reduceResult.delete();
+	}
+	
 	/**
 	 * Holds the results of individual transforms (mapper and reducer).
 	 */
@@ -51,6 +99,8 @@ public class TestJobResult
 		int _exitCode;
 		File _outputFile;
 		File _errorFile;
+		long _outputSize;
+		long _errorSize;
 		
 		public TransformResult() { }
 		
@@ -77,5 +127,34 @@ public class TestJobResult
 		public File getErrorFile() {
 			return _errorFile;
 		}
+		
+		public void setOutputSize(long outputSize) {
+			_outputSize = outputSize;
+		}
+		
+		/**
+		 * Gets the size of the output file in bytes, or 0 if there is none.
+		 */
+		public long getOutputSize() {
+			return _outputSize;
+		}
+		
+		public void setErrorSize(long errorSize) {
+			_errorSize = errorSize;
+		}
+		
+		/**
+		 * Gets the size of the error file in bytes, or 0 if there is none.
+		 */
+		public long getErrorSize() {
+			return _errorSize;
+		}
+		
+		void delete() {
+			if (_outputFile != null)
+				_outputFile.delete();
+			if (_errorFile != null)
+				_errorFile.delete();
+		}
 	}
 }
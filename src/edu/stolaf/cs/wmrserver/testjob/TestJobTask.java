@@ -16,8 +16,10 @@
 package edu.stolaf.cs.wmrserver.testjob;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.concurrent.Callable;
+import java.util.List;
+import java.util.concurrent.*;
 
 import org.apache.hadoop.conf.*;
 import org.apache.hadoop.fs.*;
@@ -32,16 +34,24 @@ import edu.stolaf.cs.wmrserver.JobServiceHandler;
 /**
  * Runs jobs as test jobs, capturing output from both the mapper and reducer
  * executables. Since these jobs should only be run with small input, files are
- * cut off after a certain number of bytes.
+ * cut off after a certain number of bytes. Like jobs on the cluster, the input
+ * may be split among several mappers, and their output among several reducers.
  */
 public class TestJobTask implements Callable<TestJobResult>
 {
 	public static final long EXECUTABLE_TIMEOUT = 30000; // 30 seconds
+	private static final byte[] TRUNCATED_NOTICE = "\n[Output truncated]\n".getBytes();
 	
 	Configuration _conf;
 	File _tempDir;
 	String _switchUserCommand;
 	long _inputCap;
+	long _inputRecordCap;
+	/** The number of places from which to sample input, or 0 for none. */
+	int _inputSamples;
+	/** Whether to sort mapper output as it is produced. */
+	boolean _pipeline;
+	long _outputCap;
 	
 	long _id;
 	Path _inputPath;
@@ -49,15 +59,33 @@ public class TestJobTask implements Callable<TestJobResult>
 	File _reducerFile;
 	File _packageDir;
 	boolean _numericSort;
+	int _mapTasks;
+	int _reduceTasks;
+	TransformWorkers _workers;
+	/** The executor on which the job's mappers and reducers are run. */
+	ExecutorService _taskExecutor;
 	
 	
+	/**
+	 * @param mapTasks     The number of mappers among which to split the input.
+	 * @param reduceTasks  The number of reducers among which to partition the
+	 *                     mappers' output.
+	 */
 	public TestJobTask(Configuration conf, long id, Path inputPath,
-			File mapperFile, File reducerFile, File packageDir, boolean numericSort)
+			File mapperFile, File reducerFile, File packageDir, boolean numericSort,
+			int mapTasks, int reduceTasks, TransformWorkers workers,
+			ExecutorService taskExecutor)
 	{
 		_conf = conf;
 		_tempDir = JobServiceHandler.getTempDir(conf);
 		_inputCap = _conf.getLong("wmr.tests.input.cap", 1024); // 1KB
+		_inputRecordCap = _conf.getLong("wmr.tests.input.records", 0);
+		_inputSamples = _conf.getInt("wmr.tests.input.samples", 8);
 		_switchUserCommand = _conf.get("wmr.tests.su.cmd", null);
+		_pipeline = _conf.getBoolean("wmr.tests.pipeline", true);
+		_outputCap = _pipeline ?
+			_conf.getLong("wmr.tests.output.cap", 0x100000 /* 1 M */) :
+			Long.MAX_VALUE;
 		
 		_id = id;
 		_inputPath = inputPath;
@@ -65,6 +93,11 @@ public class TestJobTask implements Callable<TestJobResult>
 		_reducerFile = reducerFile;
 		_packageDir = packageDir;
 		_numericSort = numericSort;
+		int maxTasks = Math.max(_conf.getInt("wmr.tests.tasks.max", 4), 1);
+		_mapTasks = Math.min(Math.max(mapTasks, 1), maxTasks);
+		_reduceTasks = Math.min(Math.max(reduceTasks, 1), maxTasks);
+		_workers = workers;
+		_taskExecutor = taskExecutor;
 	}
 	
 	public TestJobResult call()
@@ -72,121 +105,384 @@ public class TestJobTask implements Callable<TestJobResult>
 	{
 		// Create the result object
 		TestJobResult result = new TestJobResult();
+		result.setStartTime(System.currentTimeMillis());
 		
+		// The mappers' output is partitioned among the reducers by key, and
+		// the records for each reducer are sorted together. In pipeline mode,
+		// this is done as the output is produced, and the output is only kept
+		// in files (up to a limit) for display. Otherwise, it is done from the
+		// output files once the mappers complete.
+		final RecordSorter[] sorters = new RecordSorter[_reduceTasks];
+		for (int i = 0; i < sorters.length; i++)
+			sorters[i] = new RecordSorter(_conf, _numericSort, _tempDir);
+		try
+		{
+			// Map
+			
+			final byte[] input = readInput();
+			List<Integer> splits = getSplits(input, _mapTasks);
+			List<Callable<TestJobResult.TransformResult>> mappers =
+				new ArrayList<Callable<TestJobResult.TransformResult>>();
+			for (int i = 0; i + 1 < splits.size(); i++)
+			{
+				final int start = splits.get(i);
+				final int length = splits.get(i + 1) - start;
+				mappers.add(new Callable<TestJobResult.TransformResult>() {
+					public TestJobResult.TransformResult call() throws IOException
+					{
+						return runMapper(
+							new ByteArrayInputStream(input, start, length), sorters);
+					}
+				});
+			}
+			List<TestJobResult.TransformResult> mapResults = runAll(mappers);
+			
+			boolean mapFailed = false;
+			for (TestJobResult.TransformResult mapResult : mapResults)
+				mapFailed |= (mapResult.getExitCode() != 0);
+			try
+			{
+				if (!_pipeline && !mapFailed)
+				{
+					for (TestJobResult.TransformResult mapResult : mapResults)
+						partition(mapResult.getOutputFile(), sorters);
+				}
+			}
+			finally
+			{
+				result.setMapResult(combine(mapResults));
+			}
+			
+			// Return if a mapper failed or the mappers did not produce output
+			boolean mapOutput = false;
+			for (RecordSorter sorter : sorters)
+				mapOutput |= !sorter.isEmpty();
+			if (mapFailed || !mapOutput)
+			{
+				result.setFinishTime(System.currentTimeMillis());
+				return result;
+			}
+			
+			
+			// Sort and reduce
+			// The records are sorted in this process rather than by the sort
+			// command, which uses locale collation and so would order them
+			// differently than Hadoop does.
+			
+			List<Callable<TestJobResult.TransformResult>> reducers =
+				new ArrayList<Callable<TestJobResult.TransformResult>>();
+			for (final RecordSorter sorter : sorters)
+			{
+				reducers.add(new Callable<TestJobResult.TransformResult>() {
+					public TestJobResult.TransformResult call() throws IOException
+					{
+						return runReducer(sorter);
+					}
+				});
+			}
+			result.setReduceResult(combine(runAll(reducers)));
+			result.setFinishTime(System.currentTimeMillis());
+		}
+		finally
+		{
+			for (RecordSorter sorter : sorters)
+				sorter.discard();
+		}
 		
-		// Map
-		
+		return result;
+	}
+	
+	/**
+	 * Reads the job's input, up to the input limits.
+	 */
+	private byte[] readInput() throws IOException
+	{
 		CappedInputStream mapInput = null;
 		try
 		{
 			// List the input files and open a stream
 			FileSystem fs = _inputPath.getFileSystem(_conf);
 			FileStatus[] files = JobServiceHandler.listInputFiles(fs, _inputPath);
-			AggregateInputStream aggregateInput = new AggregateInputStream(fs, files);
-			mapInput = new CappedInputStream(aggregateInput, _inputCap);
+			InputStream input;
+			if (_inputSamples > 0)
+				input = new SampledInputStream(fs, files, _inputCap,
+						_inputSamples);
+			else
+				input = new AggregateInputStream(fs, files);
+			mapInput = new CappedInputStream(input, _inputCap,
+					_inputRecordCap);
 			
-			// Run the mapper
-			result.setMapResult(
-				runTransform(_id, _mapperFile, _packageDir, mapInput));
+			return IOUtils.toByteArray(mapInput);
 		}
 		finally
 		{
 			IOUtils.closeQuietly(mapInput);
 		}
-		
-		// Return if mapper failed or did not produce output
-		if (result.getMapResult().getExitCode() != 0 ||
-		    result.getMapResult().getOutputFile() == null)
+	}
+	
+	/**
+	 * Divides input into at most the given number of splits of whole lines,
+	 * of about the same size. There are fewer splits if there are too few
+	 * lines to go around.
+	 *
+	 * @return The offsets at which the splits start, followed by the end of
+	 *         the input.
+	 */
+	static List<Integer> getSplits(byte[] input, int count)
+	{
+		List<Integer> offsets = new ArrayList<Integer>(count + 1);
+		offsets.add(0);
+		for (int i = 1; i < count; i++)
+		{
+			int last = offsets.get(offsets.size() - 1);
+			int offset = Math.max((int)((long)input.length * i / count), last);
+			while (offset > 0 && offset < input.length &&
+			       input[offset - 1] != '\n')
+				offset++;
+			if (offset > last && offset < input.length)
+				offsets.add(offset);
+		}
+		offsets.add(input.length);
+		return offsets;
+	}
+	
+	private TestJobResult.TransformResult runMapper(InputStream input,
+			RecordSorter[] sorters)
+		throws IOException
+	{
+		RecordPartitioner pipe = _pipeline ?
+			new RecordPartitioner(_conf, _numericSort, sorters) : null;
+		try
+		{
+			TestJobResult.TransformResult result =
+				runTransform(_id, _mapperFile, _packageDir, input, pipe);
+			if (pipe != null)
+				pipe.close();
 			return result;
+		}
+		finally
+		{
+			IOUtils.closeQuietly(pipe);
+		}
+	}
+	
+	private TestJobResult.TransformResult runReducer(RecordSorter sorter)
+		throws IOException
+	{
+		InputStream reduceInput = null;
+		try
+		{
+			reduceInput = sorter.sort();
+			return runTransform(_id, _reducerFile, _packageDir, reduceInput, null);
+		}
+		finally
+		{
+			IOUtils.closeQuietly(reduceInput);
+		}
+	}
+	
+	/**
+	 * Partitions the lines of a mapper's output file among the sorters.
+	 */
+	private void partition(File outputFile, RecordSorter[] sorters)
+		throws IOException
+	{
+		if (outputFile == null)
+			return;
 		
+		InputStream input = null;
+		RecordPartitioner partitioner =
+			new RecordPartitioner(_conf, _numericSort, sorters);
+		try
+		{
+			input = new FileInputStream(outputFile);
+			IOUtils.copy(input, partitioner);
+			partitioner.close();
+		}
+		finally
+		{
+			IOUtils.closeQuietly(input);
+		}
+	}
+	
+	/**
+	 * Runs transforms on the task executor, all at once if there are threads
+	 * enough, and waits for them to finish. If the job is killed while
+	 * waiting, the transforms are stopped as well.
+	 *
+	 * @return The results of the transforms, in order.
+	 */
+	private List<TestJobResult.TransformResult> runAll(
+			List<Callable<TestJobResult.TransformResult>> tasks)
+		throws IOException
+	{
+		List<Future<TestJobResult.TransformResult>> futures =
+			new ArrayList<Future<TestJobResult.TransformResult>>(tasks.size());
+		for (Callable<TestJobResult.TransformResult> task : tasks)
+			futures.add(_taskExecutor.submit(task));
 		
-		// Sort
-		// While this seems (and is) inefficient for computers, this is
-		//actually probably the shortest way to write this code since
-		// vanilla Java does not provide an equivalent of sort -n.
-		// If you want to write it in Java, use java.util.TreeSet.
-		
-		File intermediateFile = null;
-		FileOutputStream intermediateOutput = null;
+		List<TestJobResult.TransformResult> results =
+			new ArrayList<TestJobResult.TransformResult>(tasks.size());
+		Throwable failure = null;
 		try
 		{
-			// Create and open temporary file for sorted intermediate output
-			intermediateFile = File.createTempFile("job-" + Long.toString(_id),
-					"-intermediate", _tempDir);
-			intermediateOutput = new FileOutputStream(intermediateFile);
-			
-			
-			// Run the sort
-			
-			CommandLine sortCommand = new CommandLine("sort");
-			//sortCommand.addArgument("--field-separator=\t");
-			if (_numericSort)
-				sortCommand.addArgument("-n");
-			sortCommand.addArgument(
-				result.getMapResult().getOutputFile().getCanonicalPath(), false);
-			DefaultExecutor exec = new DefaultExecutor();
-			ExecuteWatchdog dog = new ExecuteWatchdog(EXECUTABLE_TIMEOUT);
-			PumpStreamHandler pump = new PumpStreamHandler(intermediateOutput);
-			exec.setWatchdog(dog);
-			exec.setStreamHandler(pump);
-			
-			try
-			{
-				exec.execute(sortCommand);
-			}
-			catch (ExecuteException ex)
+			for (Future<TestJobResult.TransformResult> future : futures)
 			{
-				throw new IOException(
-					"Sort process failed while running test jobs", ex);
+				try
+				{
+					results.add(future.get());
+				}
+				catch (ExecutionException ex)
+				{
+					if (failure == null)
+						failure = ex.getCause();
+				}
 			}
 		}
-		finally
+		catch (InterruptedException ex)
 		{
-			IOUtils.closeQuietly(intermediateOutput);
+			for (Future<TestJobResult.TransformResult> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+			failure = new InterruptedIOException("The test job was killed.");
 		}
 		
+		if (failure != null)
+		{
+			for (TestJobResult.TransformResult result : results)
+				result.delete();
+			if (failure instanceof IOException)
+				throw (IOException)failure;
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException)failure;
+			throw new IOException("A test job transform could not be run.",
+					failure);
+		}
+		return results;
+	}
+	
+	/**
+	 * Combines the results of the transforms of one phase into a single
+	 * result, as though they were one transform. The exit code is that of the
+	 * first transform to fail, and the output and errors are those of each
+	 * transform in turn, up to the output limit. The individual results are
+	 * deleted.
+	 */
+	private TestJobResult.TransformResult combine(
+			List<TestJobResult.TransformResult> results)
+		throws IOException
+	{
+		if (results.size() == 1)
+			return results.get(0);
 		
-		// Reduce
+		int exitCode = 0;
+		for (TestJobResult.TransformResult result : results)
+		{
+			if (result.getExitCode() != 0)
+			{
+				exitCode = result.getExitCode();
+				break;
+			}
+		}
 		
-		FileInputStream reduceInput = null;
+		CappedOutputStream output = null;
+		CappedOutputStream error = null;
 		try
 		{
-			// Open the intermediate file for reading
-			reduceInput = new FileInputStream(intermediateFile);
+			File outputFile = File.createTempFile("job-" + Long.toString(_id), "-output", _tempDir);
+			output = new CappedOutputStream(new FileOutputStream(outputFile),
+					_outputCap, TRUNCATED_NOTICE);
+			File errorFile = File.createTempFile("job-" + Long.toString(_id), "-error", _tempDir);
+			error = new CappedOutputStream(new FileOutputStream(errorFile),
+					_outputCap, TRUNCATED_NOTICE);
+			
+			for (int i = 0; i < results.size(); i++)
+			{
+				TestJobResult.TransformResult result = results.get(i);
+				append(output, result.getOutputFile());
+				
+				// Label each transform's errors, since they can differ
+				if (result.getErrorFile() != null)
+				{
+					error.write(("[Task " + (i + 1) + "]\n").getBytes());
+					append(error, result.getErrorFile());
+				}
+			}
 			
-			// Run the reducer
-			result.setReduceResult(
-				runTransform(_id, _reducerFile, _packageDir, reduceInput));
+			return finish(new TestJobResult.TransformResult(), exitCode,
+					output, outputFile, error, errorFile);
 		}
 		finally
 		{
-			IOUtils.closeQuietly(reduceInput);
-			
-			// Delete intermediate file
-			intermediateFile.delete();
+			IOUtils.closeQuietly(output);
+			IOUtils.closeQuietly(error);
+			for (TestJobResult.TransformResult result : results)
+				result.delete();
 		}
+	}
+	
+	private static void append(OutputStream output, File file)
+		throws IOException
+	{
+		if (file == null)
+			return;
 		
-		return result;
+		InputStream input = null;
+		try
+		{
+			input = new FileInputStream(file);
+			IOUtils.copy(input, output);
+		}
+		finally
+		{
+			IOUtils.closeQuietly(input);
+		}
 	}
 	
+	/**
+	 * @param pipe  A stream to which the transform's output is written as it
+	 *              is produced, in addition to its output file, or null.
+	 */
 	protected TestJobResult.TransformResult runTransform(long id,
-		File executable, File workingDir, InputStream input)
+		File executable, File workingDir, InputStream input, OutputStream pipe)
 	throws IOException
 	{
 		// Create the result object
 		TestJobResult.TransformResult result = new TestJobResult.TransformResult();
 		
-		CountingOutputStream output = null;
-		CountingOutputStream error = null;
+		CappedOutputStream output = null;
+		CappedOutputStream error = null;
 		try
 		{
 			// Create and open temporary file for standard output
 			File outputFile = File.createTempFile("job-" + Long.toString(_id), "-output", _tempDir);
-			output = new CountingOutputStream(new FileOutputStream(outputFile));
+			output = new CappedOutputStream(new FileOutputStream(outputFile),
+					_outputCap, TRUNCATED_NOTICE);
 			
 			// Create and open temporary file for standard error
 			File errorFile = File.createTempFile("job-" + Long.toString(_id), "-error", _tempDir);
-			error = new CountingOutputStream(new FileOutputStream(errorFile));
+			error = new CappedOutputStream(new FileOutputStream(errorFile),
+					_outputCap, TRUNCATED_NOTICE);
+			
+			OutputStream stdout = output;
+			if (pipe != null)
+				stdout = new TeeOutputStream(pipe, output);
+			
+			// Run on a waiting interpreter if there is one for the transform
+			if (_workers != null && _workers.canRun(executable, workingDir))
+			{
+				// Have the worker send no more than the caps keep, except for
+				// output passed on to the reducers
+				byte[] inputBytes = IOUtils.toByteArray(input);
+				Integer exitCode = _workers.run(executable, workingDir,
+						inputBytes, stdout, error, EXECUTABLE_TIMEOUT,
+						pipe != null ? -1 : getWorkerLimit(),
+						getWorkerLimit());
+				if (exitCode != null)
+					return finish(result, exitCode, output, outputFile,
+							error, errorFile);
+				input = new ByteArrayInputStream(inputBytes);
+			}
 			
 			// If executable is relative, try to resolve in working directory
 			// (This emulates the behavior of Streaming)
@@ -216,7 +512,7 @@ public class TestJobTask implements Callable<TestJobResult>
 
 			DefaultExecutor executor = new DefaultExecutor();
 			ExecuteWatchdog dog = new ExecuteWatchdog(EXECUTABLE_TIMEOUT);
-			PumpStreamHandler pump = new PumpStreamHandler(output, error, input);
+			PumpStreamHandler pump = new PumpStreamHandler(stdout, error, input);
 			executor.setWorkingDirectory(workingDir);
 			executor.setWatchdog(dog);
 			executor.setStreamHandler(pump);
@@ -224,32 +520,56 @@ public class TestJobTask implements Callable<TestJobResult>
 			
 			int exitCode = executor.execute(command);
 			
-			result.setExitCode(exitCode);
-			
-			
-			// Check whether it produced any output
-			if (output.getByteCount() == 0)
-			{
-				output.close();
-				outputFile.delete();
-			}
-			else
-				result.setOutputFile(outputFile);
-			
-			// Check whether it produced any error output
-			if (error.getByteCount() == 0)
-			{
-				error.close();
-				errorFile.delete();
-			}
-			else
-				result.setErrorFile(errorFile);
+			return finish(result, exitCode, output, outputFile, error, errorFile);
 		}
 		finally
 		{
 			IOUtils.closeQuietly(output);
 			IOUtils.closeQuietly(error);
 		}
+	}
+	
+	/**
+	 * Gets the most bytes of a stream for a worker to send, which is one past
+	 * the cap so that the cap's notice is still written.
+	 */
+	private long getWorkerLimit()
+	{
+		return _outputCap == Long.MAX_VALUE ? -1 : _outputCap + 1;
+	}
+	
+	private TestJobResult.TransformResult finish(
+		TestJobResult.TransformResult result, int exitCode,
+		CappedOutputStream output, File outputFile,
+		CappedOutputStream error, File errorFile)
+	throws IOException
+	{
+		result.setExitCode(exitCode);
+		
+		// Measure the files once they're complete, so that their sizes don't
+		// have to be looked up whenever they're read
+		output.close();
+		error.close();
+		
+		// Check whether it produced any output
+		long outputSize = outputFile.length();
+		if (outputSize == 0)
+			outputFile.delete();
+		else
+		{
+			result.setOutputFile(outputFile);
+			result.setOutputSize(outputSize);
+		}
+		
+		// Check whether it produced any error output
+		long errorSize = errorFile.length();
+		if (errorSize == 0)
+			errorFile.delete();
+		else
+		{
+			result.setErrorFile(errorFile);
+			result.setErrorSize(errorSize);
+		}
 		
 		return result;
 	}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
+
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.configuration.tree.ConfigurationNode;
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+
+
+/**
+ * Keeps interpreters running, ready to run test job transforms, so that each
+ * transform does not pay for starting its interpreter. Languages opt in by
+ * naming a worker script with the "worker" directive in the language
+ * configuration; the script speaks the protocol described in
+ * lang-support/workers/python3.py. Workers are started through the same
+ * switch-user command as transforms themselves.
+ */
+public class TransformWorkers
+{
+	/** The longest to wait past a transform's timeout for its worker. */
+	private static final long WORKER_GRACE = 10000;
+	/** How often to check whether a worker's transform was cancelled. */
+	private static final long WATCH_INTERVAL = 100;
+
+	/** The pools of idle workers, by the interpreter they run. */
+	private HashMap<String, Pool> _pools;
+	private ScheduledExecutorService _watchdog;
+
+
+	public TransformWorkers(Configuration conf,
+			HierarchicalConfiguration languageConf, File langSupportDir)
+	{
+		_pools = new HashMap<String, Pool>();
+		int size = conf.getInt("wmr.tests.workers", 0);
+		if (size <= 0 || !conf.getBoolean("wmr.tests.allow", false))
+			return;
+
+		String switchUserCommand = conf.get("wmr.tests.su.cmd", null);
+		for (ConfigurationNode node : languageConf.getRootNode().getChildren())
+		{
+			SubnodeConfiguration language;
+			try
+			{
+				language = languageConf.configurationAt(node.getName());
+			}
+			catch (IllegalArgumentException ex)
+			{
+				continue;
+			}
+
+			String interpreter = language.getString("interpreter", "");
+			String worker = language.getString("worker", "");
+			if (interpreter.isEmpty() || worker.isEmpty())
+				continue;
+
+			File workerFile = new File(worker);
+			if (!workerFile.isAbsolute())
+				workerFile = new File(langSupportDir, worker);
+			_pools.put(interpreter, new Pool(
+				getCommand(switchUserCommand, interpreter, workerFile), size));
+		}
+
+		_watchdog = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "transform-worker-watchdog");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	}
+
+	/**
+	 * Determines whether there are workers for the interpreter of the given
+	 * transform, relative to the working directory.
+	 */
+	public boolean canRun(File executable, File workingDir)
+	{
+		return getPool(executable, workingDir) != null;
+	}
+
+	/**
+	 * Runs a transform on a worker, if one is available for its interpreter.
+	 * Output and errors are written as the transform produces them. If the
+	 * calling thread is interrupted, the worker is destroyed.
+	 *
+	 * @param executable   The transform, relative to the working directory.
+	 * @param timeout      The number of milliseconds after which the transform
+	 *                     is killed.
+	 * @param outputLimit  The most bytes of output for the worker to send, or
+	 *                     a negative number for all of them.
+	 * @param errorLimit   The most bytes of errors for the worker to send, or
+	 *                     a negative number for all of them.
+	 *
+	 * @return The transform's exit code, or null if no worker could run it, in
+	 *         which case it should be run by other means.
+	 *
+	 * @throws IOException  If the worker failed after the transform had
+	 *                      already written some output or errors, or the
+	 *                      calling thread was interrupted.
+	 */
+	public Integer run(File executable, File workingDir, byte[] input,
+			OutputStream output, OutputStream error, long timeout,
+			long outputLimit, long errorLimit)
+		throws IOException
+	{
+		Pool pool = getPool(executable, workingDir);
+		if (pool == null)
+			return null;
+
+		Worker worker = pool.idle.poll();
+		if (worker == null)
+			return null;
+
+		// Reading the worker's reply can't be interrupted, so destroy the
+		// worker instead when cancelled (or silent for too long)
+		final Worker finalWorker = worker;
+		final Thread caller = Thread.currentThread();
+		final long deadline = System.currentTimeMillis() + timeout + WORKER_GRACE;
+		ScheduledFuture<?> watch = _watchdog.scheduleWithFixedDelay(new Runnable() {
+			public void run()
+			{
+				if (caller.isInterrupted() ||
+						System.currentTimeMillis() >= deadline)
+					finalWorker.destroy();
+			}
+		}, WATCH_INTERVAL, WATCH_INTERVAL, TimeUnit.MILLISECONDS);
+
+		try
+		{
+			int exitCode = worker.run(executable.getPath(),
+					workingDir.getAbsoluteFile(), input, output, error, timeout,
+					outputLimit, errorLimit);
+			watch.cancel(false);
+			pool.idle.add(worker);
+			return exitCode;
+		}
+		catch (IOException ex)
+		{
+			// The worker is unusable; replace it
+			watch.cancel(false);
+			worker.destroy();
+			pool.replace();
+
+			if (Thread.currentThread().isInterrupted())
+			{
+				InterruptedIOException interrupted =
+					new InterruptedIOException("Transform was cancelled.");
+				interrupted.initCause(ex);
+				throw interrupted;
+			}
+			// Let the caller run the transform itself, unless doing so would
+			// repeat output which has already been passed on
+			if (worker.hasReplied())
+				throw ex;
+			return null;
+		}
+	}
+
+	private Pool getPool(File executable, File workingDir)
+	{
+		if (_pools.isEmpty() || executable.isAbsolute())
+			return null;
+		return _pools.get(
+			getInterpreter(new File(workingDir, executable.getPath())));
+	}
+
+	/**
+	 * Gets the interpreter named in the shebang line of a script, or null if
+	 * it has none.
+	 */
+	private static String getInterpreter(File script)
+	{
+		BufferedReader reader = null;
+		try
+		{
+			reader = new BufferedReader(new FileReader(script));
+			String line = reader.readLine();
+			if (line != null && line.startsWith("#!"))
+				return line.substring(2).trim();
+			return null;
+		}
+		catch (IOException ex)
+		{
+			return null;
+		}
+		finally
+		{
+			IOUtils.closeQuietly(reader);
+		}
+	}
+
+	private static List<String> getCommand(String switchUserCommand,
+			String interpreter, File workerFile)
+	{
+		CommandLine interpreterCommand = CommandLine.parse(interpreter);
+
+		CommandLine command;
+		if (switchUserCommand == null)
+			command = new CommandLine(interpreterCommand.getExecutable());
+		else
+		{
+			command = CommandLine.parse(switchUserCommand);
+			HashMap<String, String> substitutionMap = new HashMap<String, String>();
+			substitutionMap.put("cmd", interpreterCommand.getExecutable());
+			command.setSubstitutionMap(substitutionMap);
+		}
+		command.addArguments(interpreterCommand.getArguments(), false);
+		command.addArgument(workerFile.getAbsolutePath(), false);
+
+		return Arrays.asList(command.toStrings());
+	}
+
+
+	private static class Pool
+	{
+		public List<String> command;
+		public LinkedBlockingQueue<Worker> idle;
+
+		public Pool(List<String> command, int size)
+		{
+			this.command = command;
+			this.idle = new LinkedBlockingQueue<Worker>();
+			for (int i = 0; i < size; i++)
+				replace();
+		}
+
+		/**
+		 * Starts a new worker in place of one which has failed.
+		 */
+		public void replace()
+		{
+			try
+			{
+				idle.add(new Worker(command));
+			}
+			catch (IOException ex)
+			{
+				// Run transforms without this worker
+			}
+		}
+	}
+
+	private static class Worker
+	{
+		private Process _process;
+		private InputStream _replies;
+		private OutputStream _requests;
+		/** Whether any output or errors were received for the last request. */
+		private boolean _replied;
+
+		public Worker(List<String> command) throws IOException
+		{
+			ProcessBuilder builder = new ProcessBuilder(command);
+			builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+			_process = builder.start();
+			_replies = new BufferedInputStream(_process.getInputStream());
+			_requests = new BufferedOutputStream(_process.getOutputStream());
+		}
+
+		public int run(String script, File workingDir, byte[] input,
+				OutputStream output, OutputStream error, long timeout,
+				long outputLimit, long errorLimit)
+			throws IOException
+		{
+			_replied = false;
+			String header = script + "\t" + workingDir + "\t" + timeout + "\t" +
+				outputLimit + "\t" + errorLimit + "\t" + input.length + "\n";
+			_requests.write(header.getBytes("UTF-8"));
+			_requests.write(input);
+			_requests.flush();
+
+			// Relay chunks of output and errors until the exit code
+			while (true)
+			{
+				String[] reply = readLine().split("\t");
+				if (reply.length != 2)
+					throw new IOException("Malformed reply from transform worker.");
+				int stream;
+				long value;
+				try
+				{
+					stream = Integer.parseInt(reply[0]);
+					value = Long.parseLong(reply[1]);
+				}
+				catch (NumberFormatException ex)
+				{
+					throw new IOException("Malformed reply from transform worker.", ex);
+				}
+
+				switch (stream)
+				{
+					case 0:
+						return (int)value;
+					case 1:
+						_replied = true;
+						copy(output, value);
+						break;
+					case 2:
+						_replied = true;
+						copy(error, value);
+						break;
+					default:
+						throw new IOException("Malformed reply from transform worker.");
+				}
+			}
+		}
+
+		public boolean hasReplied()
+		{
+			return _replied;
+		}
+
+		public void destroy()
+		{
+			_process.destroy();
+		}
+
+		private String readLine() throws IOException
+		{
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int b;
+			while ((b = _replies.read()) != '\n')
+			{
+				if (b == -1)
+					throw new EOFException("Transform worker exited.");
+				line.write(b);
+			}
+			return line.toString("UTF-8");
+		}
+
+		private void copy(OutputStream output, long length) throws IOException
+		{
+			if (IOUtils.copyLarge(_replies, output, 0, length) != length)
+				throw new EOFException("Transform worker exited.");
+		}
+	}
+}
@@ -27,11 +27,15 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
   private static final org.apache.thrift.protocol.TField STATE_FIELD_DESC = new org.apache.thrift.protocol.TField("state", org.apache.thrift.protocol.TType.I32, (short)2);
   private static final org.apache.thrift.protocol.TField MAP_STATUS_FIELD_DESC = new org.apache.thrift.protocol.TField("mapStatus", org.apache.thrift.protocol.TType.STRUCT, (short)3);
   private static final org.apache.thrift.protocol.TField REDUCE_STATUS_FIELD_DESC = new org.apache.thrift.protocol.TField("reduceStatus", org.apache.thrift.protocol.TType.STRUCT, (short)4);
+  private static final org.apache.thrift.protocol.TField VERSION_FIELD_DESC = new org.apache.thrift.protocol.TField("version", org.apache.thrift.protocol.TType.I64, (short)5);
+  private static final org.apache.thrift.protocol.TField QUEUE_POSITION_FIELD_DESC = new org.apache.thrift.protocol.TField("queuePosition", org.apache.thrift.protocol.TType.I32, (short)6);
 
   private JobInfo info; // required
   private State state; // required
   private PhaseStatus mapStatus; // required
   private PhaseStatus reduceStatus; // required
+  private long version; // required
+  private int queuePosition; // required
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -42,7 +46,9 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
      */
     STATE((short)2, "state"),
     MAP_STATUS((short)3, "mapStatus"),
-    REDUCE_STATUS((short)4, "reduceStatus");
+    REDUCE_STATUS((short)4, "reduceStatus"),
+    VERSION((short)5, "version"),
+    QUEUE_POSITION((short)6, "queuePosition");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -65,6 +71,10 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
           return MAP_STATUS;
         case 4: // REDUCE_STATUS
           return REDUCE_STATUS;
+        case 5: // VERSION
+          return VERSION;
+        case 6: // QUEUE_POSITION
+          return QUEUE_POSITION;
         default:
           return null;
       }
@@ -105,6 +115,9 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
   }
 
   // isset id assignments
+  private static final int __VERSION_ISSET_ID = 0;
+  private static final int __QUEUEPOSITION_ISSET_ID = 1;
+  private BitSet __isset_bit_vector = new BitSet(2);
 
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
@@ -117,6 +130,10 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, PhaseStatus.class)));
     tmpMap.put(_Fields.REDUCE_STATUS, new org.apache.thrift.meta_data.FieldMetaData("reduceStatus", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, PhaseStatus.class)));
+    tmpMap.put(_Fields.VERSION, new org.apache.thrift.meta_data.FieldMetaData("version", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.QUEUE_POSITION, new org.apache.thrift.meta_data.FieldMetaData("queuePosition", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(JobStatus.class, metaDataMap);
   }
@@ -137,6 +154,8 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
    * Performs a deep copy on <i>other</i>.
    */
   public JobStatus(JobStatus other) {
+    __isset_bit_vector.clear();
+    __isset_bit_vector.or(other.__isset_bit_vector);
     if (other.isSetInfo()) {
       this.info = new JobInfo(other.info);
     }
@@ -149,6 +168,8 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
     if (other.isSetReduceStatus()) {
       this.reduceStatus = new PhaseStatus(other.reduceStatus);
     }
+    this.version = other.version;
+    this.queuePosition = other.queuePosition;
   }
 
   public JobStatus deepCopy() {
@@ -161,6 +182,10 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
     this.state = null;
     this.mapStatus = null;
     this.reduceStatus = null;
+    setVersionIsSet(false);
+    this.version = 0;
+    setQueuePositionIsSet(false);
+    this.queuePosition = 0;
   }
 
   public JobInfo getInfo() {
@@ -263,6 +288,50 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
     }
   }
 
+  public long getVersion() {
+    return this.version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+    setVersionIsSet(true);
+  }
+
+  public void unsetVersion() {
+    __isset_bit_vector.clear(__VERSION_ISSET_ID);
+  }
+
+  /** Returns true if field version is set (has been assigned a value) and false otherwise */
+  public boolean isSetVersion() {
+    return __isset_bit_vector.get(__VERSION_ISSET_ID);
+  }
+
+  public void setVersionIsSet(boolean value) {
+    __isset_bit_vector.set(__VERSION_ISSET_ID, value);
+  }
+
+  public int getQueuePosition() {
+    return this.queuePosition;
+  }
+
+  public void setQueuePosition(int queuePosition) {
+    this.queuePosition = queuePosition;
+    setQueuePositionIsSet(true);
+  }
+
+  public void unsetQueuePosition() {
+    __isset_bit_vector.clear(__QUEUEPOSITION_ISSET_ID);
+  }
+
+  /** Returns true if field queuePosition is set (has been assigned a value) and false otherwise */
+  public boolean isSetQueuePosition() {
+    return __isset_bit_vector.get(__QUEUEPOSITION_ISSET_ID);
+  }
+
+  public void setQueuePositionIsSet(boolean value) {
+    __isset_bit_vector.set(__QUEUEPOSITION_ISSET_ID, value);
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case INFO:
@@ -297,6 +366,22 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
       }
       break;
 
+    case VERSION:
+      if (value == null) {
+        unsetVersion();
+      } else {
+        setVersion((Long)value);
+      }
+      break;
+
+    case QUEUE_POSITION:
+      if (value == null) {
+        unsetQueuePosition();
+      } else {
+        setQueuePosition((Integer)value);
+      }
+      break;
+
     }
   }
 
@@ -314,6 +399,12 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
     case REDUCE_STATUS:
       return getReduceStatus();
 
+    case VERSION:
+      return Long.valueOf(getVersion());
+
+    case QUEUE_POSITION:
+      return Integer.valueOf(getQueuePosition());
+
     }
     throw new IllegalStateException();
   }
@@ -333,6 +424,10 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
       return isSetMapStatus();
     case REDUCE_STATUS:
       return isSetReduceStatus();
+    case VERSION:
+      return isSetVersion();
+    case QUEUE_POSITION:
+      return isSetQueuePosition();
     }
     throw new IllegalStateException();
   }
@@ -386,6 +481,24 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
         return false;
     }
 
+    boolean this_present_version = true && this.isSetVersion();
+    boolean that_present_version = true && that.isSetVersion();
+    if (this_present_version || that_present_version) {
+      if (!(this_present_version && that_present_version))
+        return false;
+      if (this.version != that.version)
+        return false;
+    }
+
+    boolean this_present_queuePosition = true && this.isSetQueuePosition();
+    boolean that_present_queuePosition = true && that.isSetQueuePosition();
+    if (this_present_queuePosition || that_present_queuePosition) {
+      if (!(this_present_queuePosition && that_present_queuePosition))
+        return false;
+      if (this.queuePosition != that.queuePosition)
+        return false;
+    }
+
     return true;
   }
 
@@ -442,6 +555,26 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetVersion()).compareTo(typedOther.isSetVersion());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetVersion()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.version, typedOther.version);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = Boolean.valueOf(isSetQueuePosition()).compareTo(typedOther.isSetQueuePosition());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetQueuePosition()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.queuePosition, typedOther.queuePosition);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -490,6 +623,22 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
           }
           break;
+        case 5: // VERSION
+          if (field.type == org.apache.thrift.protocol.TType.I64) {
+            this.version = iprot.readI64();
+            setVersionIsSet(true);
+          } else { 
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+          }
+          break;
+        case 6: // QUEUE_POSITION
+          if (field.type == org.apache.thrift.protocol.TType.I32) {
+            this.queuePosition = iprot.readI32();
+            setQueuePositionIsSet(true);
+          } else { 
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+          }
+          break;
         default:
           org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
       }
@@ -527,6 +676,16 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
         oprot.writeFieldEnd();
       }
     }
+    if (isSetVersion()) {
+      oprot.writeFieldBegin(VERSION_FIELD_DESC);
+      oprot.writeI64(this.version);
+      oprot.writeFieldEnd();
+    }
+    if (isSetQueuePosition()) {
+      oprot.writeFieldBegin(QUEUE_POSITION_FIELD_DESC);
+      oprot.writeI32(this.queuePosition);
+      oprot.writeFieldEnd();
+    }
     oprot.writeFieldStop();
     oprot.writeStructEnd();
   }
@@ -571,6 +730,18 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
       }
       first = false;
     }
+    if (isSetVersion()) {
+      if (!first) sb.append(", ");
+      sb.append("version:");
+      sb.append(this.version);
+      first = false;
+    }
+    if (isSetQueuePosition()) {
+      if (!first) sb.append(", ");
+      sb.append("queuePosition:");
+      sb.append(this.queuePosition);
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -589,6 +760,8 @@ public class JobStatus implements org.apache.thrift.TBase<JobStatus, JobStatus._
 
   private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
     try {
+      // it doesn't seem like you should have to do this, but java serialization is wacky, and doesn't call the default constructor.
+      __isset_bit_vector = new BitSet(1);
       read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
     } catch (org.apache.thrift.TException te) {
       throw new java.io.IOException(te);
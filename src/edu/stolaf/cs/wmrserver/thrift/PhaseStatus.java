@@ -22,7 +22,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * If #output is not set and outputPages > 0, then call JobService#getOutput()
- * to get the first page.
+ * to get the first page. For test jobs, #output and #errors hold the first
+ * pages of the output and errors; outputPages and errorPages tell how many
+ * pages there are in all.
  */
 public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseStatus._Fields>, java.io.Serializable, Cloneable {
   private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("PhaseStatus");
@@ -31,16 +33,20 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
   private static final org.apache.thrift.protocol.TField STATE_FIELD_DESC = new org.apache.thrift.protocol.TField("state", org.apache.thrift.protocol.TType.I32, (short)2);
   private static final org.apache.thrift.protocol.TField CODE_FIELD_DESC = new org.apache.thrift.protocol.TField("code", org.apache.thrift.protocol.TType.I32, (short)3);
   private static final org.apache.thrift.protocol.TField OUTPUT_FIELD_DESC = new org.apache.thrift.protocol.TField("output", org.apache.thrift.protocol.TType.STRING, (short)4);
+  private static final org.apache.thrift.protocol.TField OUTPUT_PAGES_FIELD_DESC = new org.apache.thrift.protocol.TField("outputPages", org.apache.thrift.protocol.TType.I32, (short)6);
   private static final org.apache.thrift.protocol.TField OUTPUT_PATH_FIELD_DESC = new org.apache.thrift.protocol.TField("outputPath", org.apache.thrift.protocol.TType.STRING, (short)7);
   private static final org.apache.thrift.protocol.TField ERRORS_FIELD_DESC = new org.apache.thrift.protocol.TField("errors", org.apache.thrift.protocol.TType.STRING, (short)5);
+  private static final org.apache.thrift.protocol.TField ERROR_PAGES_FIELD_DESC = new org.apache.thrift.protocol.TField("errorPages", org.apache.thrift.protocol.TType.I32, (short)9);
   private static final org.apache.thrift.protocol.TField TOTAL_TASKS_FIELD_DESC = new org.apache.thrift.protocol.TField("totalTasks", org.apache.thrift.protocol.TType.I32, (short)8);
 
   private double progress; // required
   private State state; // required
   private int code; // required
   private String output; // required
+  private int outputPages; // required
   private String outputPath; // required
   private String errors; // required
+  private int errorPages; // required
   private int totalTasks; // required
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
@@ -53,8 +59,10 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     STATE((short)2, "state"),
     CODE((short)3, "code"),
     OUTPUT((short)4, "output"),
+    OUTPUT_PAGES((short)6, "outputPages"),
     OUTPUT_PATH((short)7, "outputPath"),
     ERRORS((short)5, "errors"),
+    ERROR_PAGES((short)9, "errorPages"),
     TOTAL_TASKS((short)8, "totalTasks");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
@@ -78,10 +86,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
           return CODE;
         case 4: // OUTPUT
           return OUTPUT;
+        case 6: // OUTPUT_PAGES
+          return OUTPUT_PAGES;
         case 7: // OUTPUT_PATH
           return OUTPUT_PATH;
         case 5: // ERRORS
           return ERRORS;
+        case 9: // ERROR_PAGES
+          return ERROR_PAGES;
         case 8: // TOTAL_TASKS
           return TOTAL_TASKS;
         default:
@@ -126,8 +138,10 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
   // isset id assignments
   private static final int __PROGRESS_ISSET_ID = 0;
   private static final int __CODE_ISSET_ID = 1;
-  private static final int __TOTALTASKS_ISSET_ID = 2;
-  private BitSet __isset_bit_vector = new BitSet(3);
+  private static final int __OUTPUTPAGES_ISSET_ID = 2;
+  private static final int __ERRORPAGES_ISSET_ID = 3;
+  private static final int __TOTALTASKS_ISSET_ID = 4;
+  private BitSet __isset_bit_vector = new BitSet(5);
 
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
@@ -140,10 +154,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     tmpMap.put(_Fields.OUTPUT, new org.apache.thrift.meta_data.FieldMetaData("output", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.OUTPUT_PAGES, new org.apache.thrift.meta_data.FieldMetaData("outputPages", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     tmpMap.put(_Fields.OUTPUT_PATH, new org.apache.thrift.meta_data.FieldMetaData("outputPath", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     tmpMap.put(_Fields.ERRORS, new org.apache.thrift.meta_data.FieldMetaData("errors", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.ERROR_PAGES, new org.apache.thrift.meta_data.FieldMetaData("errorPages", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     tmpMap.put(_Fields.TOTAL_TASKS, new org.apache.thrift.meta_data.FieldMetaData("totalTasks", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
@@ -177,12 +195,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     if (other.isSetOutput()) {
       this.output = other.output;
     }
+    this.outputPages = other.outputPages;
     if (other.isSetOutputPath()) {
       this.outputPath = other.outputPath;
     }
     if (other.isSetErrors()) {
       this.errors = other.errors;
     }
+    this.errorPages = other.errorPages;
     this.totalTasks = other.totalTasks;
   }
 
@@ -198,8 +218,12 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     setCodeIsSet(false);
     this.code = 0;
     this.output = null;
+    setOutputPagesIsSet(false);
+    this.outputPages = 0;
     this.outputPath = null;
     this.errors = null;
+    setErrorPagesIsSet(false);
+    this.errorPages = 0;
     setTotalTasksIsSet(false);
     this.totalTasks = 0;
   }
@@ -302,6 +326,28 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     }
   }
 
+  public int getOutputPages() {
+    return this.outputPages;
+  }
+
+  public void setOutputPages(int outputPages) {
+    this.outputPages = outputPages;
+    setOutputPagesIsSet(true);
+  }
+
+  public void unsetOutputPages() {
+    __isset_bit_vector.clear(__OUTPUTPAGES_ISSET_ID);
+  }
+
+  /** Returns true if field outputPages is set (has been assigned a value) and false otherwise */
+  public boolean isSetOutputPages() {
+    return __isset_bit_vector.get(__OUTPUTPAGES_ISSET_ID);
+  }
+
+  public void setOutputPagesIsSet(boolean value) {
+    __isset_bit_vector.set(__OUTPUTPAGES_ISSET_ID, value);
+  }
+
   public String getOutputPath() {
     return this.outputPath;
   }
@@ -348,6 +394,28 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     }
   }
 
+  public int getErrorPages() {
+    return this.errorPages;
+  }
+
+  public void setErrorPages(int errorPages) {
+    this.errorPages = errorPages;
+    setErrorPagesIsSet(true);
+  }
+
+  public void unsetErrorPages() {
+    __isset_bit_vector.clear(__ERRORPAGES_ISSET_ID);
+  }
+
+  /** Returns true if field errorPages is set (has been assigned a value) and false otherwise */
+  public boolean isSetErrorPages() {
+    return __isset_bit_vector.get(__ERRORPAGES_ISSET_ID);
+  }
+
+  public void setErrorPagesIsSet(boolean value) {
+    __isset_bit_vector.set(__ERRORPAGES_ISSET_ID, value);
+  }
+
   public int getTotalTasks() {
     return this.totalTasks;
   }
@@ -404,6 +472,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       }
       break;
 
+    case OUTPUT_PAGES:
+      if (value == null) {
+        unsetOutputPages();
+      } else {
+        setOutputPages((Integer)value);
+      }
+      break;
+
     case OUTPUT_PATH:
       if (value == null) {
         unsetOutputPath();
@@ -420,6 +496,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       }
       break;
 
+    case ERROR_PAGES:
+      if (value == null) {
+        unsetErrorPages();
+      } else {
+        setErrorPages((Integer)value);
+      }
+      break;
+
     case TOTAL_TASKS:
       if (value == null) {
         unsetTotalTasks();
@@ -445,12 +529,18 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
     case OUTPUT:
       return getOutput();
 
+    case OUTPUT_PAGES:
+      return Integer.valueOf(getOutputPages());
+
     case OUTPUT_PATH:
       return getOutputPath();
 
     case ERRORS:
       return getErrors();
 
+    case ERROR_PAGES:
+      return Integer.valueOf(getErrorPages());
+
     case TOTAL_TASKS:
       return Integer.valueOf(getTotalTasks());
 
@@ -473,10 +563,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       return isSetCode();
     case OUTPUT:
       return isSetOutput();
+    case OUTPUT_PAGES:
+      return isSetOutputPages();
     case OUTPUT_PATH:
       return isSetOutputPath();
     case ERRORS:
       return isSetErrors();
+    case ERROR_PAGES:
+      return isSetErrorPages();
     case TOTAL_TASKS:
       return isSetTotalTasks();
     }
@@ -532,6 +626,15 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         return false;
     }
 
+    boolean this_present_outputPages = true && this.isSetOutputPages();
+    boolean that_present_outputPages = true && that.isSetOutputPages();
+    if (this_present_outputPages || that_present_outputPages) {
+      if (!(this_present_outputPages && that_present_outputPages))
+        return false;
+      if (this.outputPages != that.outputPages)
+        return false;
+    }
+
     boolean this_present_outputPath = true && this.isSetOutputPath();
     boolean that_present_outputPath = true && that.isSetOutputPath();
     if (this_present_outputPath || that_present_outputPath) {
@@ -550,6 +653,15 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         return false;
     }
 
+    boolean this_present_errorPages = true && this.isSetErrorPages();
+    boolean that_present_errorPages = true && that.isSetErrorPages();
+    if (this_present_errorPages || that_present_errorPages) {
+      if (!(this_present_errorPages && that_present_errorPages))
+        return false;
+      if (this.errorPages != that.errorPages)
+        return false;
+    }
+
     boolean this_present_totalTasks = true && this.isSetTotalTasks();
     boolean that_present_totalTasks = true && that.isSetTotalTasks();
     if (this_present_totalTasks || that_present_totalTasks) {
@@ -615,6 +727,16 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetOutputPages()).compareTo(typedOther.isSetOutputPages());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetOutputPages()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.outputPages, typedOther.outputPages);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     lastComparison = Boolean.valueOf(isSetOutputPath()).compareTo(typedOther.isSetOutputPath());
     if (lastComparison != 0) {
       return lastComparison;
@@ -635,6 +757,16 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetErrorPages()).compareTo(typedOther.isSetErrorPages());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetErrorPages()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.errorPages, typedOther.errorPages);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     lastComparison = Boolean.valueOf(isSetTotalTasks()).compareTo(typedOther.isSetTotalTasks());
     if (lastComparison != 0) {
       return lastComparison;
@@ -692,6 +824,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
           }
           break;
+        case 6: // OUTPUT_PAGES
+          if (field.type == org.apache.thrift.protocol.TType.I32) {
+            this.outputPages = iprot.readI32();
+            setOutputPagesIsSet(true);
+          } else { 
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+          }
+          break;
         case 7: // OUTPUT_PATH
           if (field.type == org.apache.thrift.protocol.TType.STRING) {
             this.outputPath = iprot.readString();
@@ -706,6 +846,14 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
           }
           break;
+        case 9: // ERROR_PAGES
+          if (field.type == org.apache.thrift.protocol.TType.I32) {
+            this.errorPages = iprot.readI32();
+            setErrorPagesIsSet(true);
+          } else { 
+            org.apache.thrift.protocol.TProtocolUtil.skip(iprot, field.type);
+          }
+          break;
         case 8: // TOTAL_TASKS
           if (field.type == org.apache.thrift.protocol.TType.I32) {
             this.totalTasks = iprot.readI32();
@@ -754,6 +902,11 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
         oprot.writeFieldEnd();
       }
     }
+    if (isSetOutputPages()) {
+      oprot.writeFieldBegin(OUTPUT_PAGES_FIELD_DESC);
+      oprot.writeI32(this.outputPages);
+      oprot.writeFieldEnd();
+    }
     if (this.outputPath != null) {
       if (isSetOutputPath()) {
         oprot.writeFieldBegin(OUTPUT_PATH_FIELD_DESC);
@@ -766,6 +919,11 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       oprot.writeI32(this.totalTasks);
       oprot.writeFieldEnd();
     }
+    if (isSetErrorPages()) {
+      oprot.writeFieldBegin(ERROR_PAGES_FIELD_DESC);
+      oprot.writeI32(this.errorPages);
+      oprot.writeFieldEnd();
+    }
     oprot.writeFieldStop();
     oprot.writeStructEnd();
   }
@@ -802,6 +960,12 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       }
       first = false;
     }
+    if (isSetOutputPages()) {
+      if (!first) sb.append(", ");
+      sb.append("outputPages:");
+      sb.append(this.outputPages);
+      first = false;
+    }
     if (isSetOutputPath()) {
       if (!first) sb.append(", ");
       sb.append("outputPath:");
@@ -822,6 +986,12 @@ public class PhaseStatus implements org.apache.thrift.TBase<PhaseStatus, PhaseSt
       }
       first = false;
     }
+    if (isSetErrorPages()) {
+      if (!first) sb.append(", ");
+      sb.append("errorPages:");
+      sb.append(this.errorPages);
+      first = false;
+    }
     if (isSetTotalTasks()) {
       if (!first) sb.append(", ");
       sb.append("totalTasks:");
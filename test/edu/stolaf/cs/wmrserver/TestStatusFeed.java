@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver;
+
+import org.apache.hadoop.conf.Configuration;
+
+import edu.stolaf.cs.wmrserver.thrift.JobStatus;
+import edu.stolaf.cs.wmrserver.thrift.State;
+
+import junit.framework.TestCase;
+
+
+public class TestStatusFeed extends TestCase
+{
+	private StatusFeed _feed;
+
+	protected void setUp()
+	{
+		Configuration conf = new Configuration();
+		conf.setLong("wmr.status.watch.interval", 60000);
+		conf.setInt("wmr.status.feed.capacity", 1);
+		_feed = new StatusFeed(conf);
+	}
+
+	public void testWakesWatcherOnNewStatus() throws InterruptedException
+	{
+		final long version = _feed.publish(1, status(State.RUNNING));
+		final JobStatus done = status(State.SUCCESSFUL);
+		new Thread() {
+			public void run()
+			{
+				try
+				{
+					Thread.sleep(100);
+				}
+				catch (InterruptedException ex)
+				{
+				}
+				_feed.publish(1, done);
+			}
+		}.start();
+
+		JobStatus status = _feed.await(1, version, 10000);
+		assertEquals(State.SUCCESSFUL, status.getState());
+		assertTrue(status.getVersion() > version);
+	}
+
+	public void testKeepsVersionOfUnchangedStatus()
+	{
+		long version = _feed.publish(1, status(State.RUNNING));
+		assertEquals(version, _feed.publish(1, status(State.RUNNING)));
+	}
+
+	public void testEvictedStatusIsRefreshedWithNewVersion()
+		throws InterruptedException
+	{
+		long version = _feed.publish(1, status(State.SUCCESSFUL));
+		assertFalse(_feed.beginRefresh(1));
+		// Publishing another job evicts the first
+		_feed.publish(2, status(State.RUNNING));
+
+		// A watcher holding the old version must neither wait nor spin: the
+		// evicted job is stale, so it is returned at once and refreshed
+		long start = System.currentTimeMillis();
+		assertNull(_feed.await(1, version, 5000));
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		assertTrue(_feed.beginRefresh(1));
+		long republished = _feed.publish(1, status(State.SUCCESSFUL));
+		_feed.endRefresh(1);
+
+		JobStatus status = _feed.await(1, version, 5000);
+		assertEquals(State.SUCCESSFUL, status.getState());
+		assertEquals(republished, status.getVersion());
+		assertTrue(republished > version);
+	}
+
+	private static JobStatus status(State state)
+	{
+		JobStatus status = new JobStatus();
+		status.setState(state);
+		return status;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class TestKeyValLineReader extends TestCase {
+
+  public void testLineEndings() throws IOException {
+    assertEquals(list("a", "b", "", "c", "d"), read("a\nb\r\n\rc\r\nd", 16, 0));
+    assertEquals(list("a", ""), read("a\n\n", 16, 0));
+    assertEquals(list(), read("", 16, 0));
+  }
+
+  public void testGrowsForLongLines() throws IOException {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      line.append((char) ('a' + i % 26));
+    }
+    assertEquals(list(line.toString(), "x"), read(line + "\r\nx", 4, 0));
+  }
+
+  public void testMatchesNaiveSplitting() throws IOException {
+    Random random = new Random(42);
+    char[] chars = { 'a', 'b', '\t', '\r', '\n' };
+    for (int i = 0; i < 2000; i++) {
+      StringBuilder input = new StringBuilder();
+      int length = random.nextInt(60);
+      for (int j = 0; j < length; j++) {
+        input.append(chars[random.nextInt(chars.length)]);
+      }
+      String s = input.toString();
+      // Small buffers and short reads split CR LF across reads
+      assertEquals(s, split(s),
+                   read(s, 1 + random.nextInt(8), 1 + random.nextInt(5)));
+    }
+  }
+
+  /** Split lines the simple way: at "\r\n", '\r' or '\n'. */
+  private static List<String> split(String s) {
+    List<String> lines = new ArrayList<String>();
+    int start = 0;
+    while (start < s.length()) {
+      int end = start;
+      while (end < s.length() && s.charAt(end) != '\n'
+             && s.charAt(end) != '\r') {
+        end++;
+      }
+      lines.add(s.substring(start, end));
+      if (end < s.length() && s.charAt(end) == '\r'
+          && end + 1 < s.length() && s.charAt(end + 1) == '\n') {
+        end++;
+      }
+      start = end + 1;
+    }
+    return lines;
+  }
+
+  /**
+   * Read the lines of the input with a reader of the given buffer size, from
+   * a stream returning at most the given number of bytes a read (or any
+   * number if 0).
+   */
+  private static List<String> read(String s, int bufferSize,
+                                   final int maxRead) throws IOException {
+    InputStream in = new ByteArrayInputStream(s.getBytes("UTF-8")) {
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, maxRead > 0 ? Math.min(len, maxRead) : len);
+      }
+    };
+    KeyValLineReader reader = new KeyValLineReader(in, bufferSize);
+    List<String> lines = new ArrayList<String>();
+    while (reader.next()) {
+      lines.add(new String(reader.getBuffer(), reader.getLineStart(),
+                           reader.getLineEnd() - reader.getLineStart(),
+                           "UTF-8"));
+    }
+    reader.close();
+    return lines;
+  }
+
+  private static List<String> list(String... lines) {
+    List<String> list = new ArrayList<String>();
+    for (String line : lines) {
+      list.add(line);
+    }
+    return list;
+  }
+}
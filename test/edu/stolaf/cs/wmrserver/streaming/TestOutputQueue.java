@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class TestOutputQueue extends TestCase {
+
+  public void testPassesRecordsInOrder() throws Exception {
+    for (int depth : new int[] { 1, 3, 16 }) {
+      final OutputQueue queue = new OutputQueue(depth);
+      final List<String> taken = new ArrayList<String>();
+      Thread collector = new Thread() {
+        public void run() {
+          try {
+            int slot = 0;
+            int count;
+            while ((count = queue.take()) > 0) {
+              for (int i = 0; i < count; i++) {
+                taken.add(queue.getKey(slot) + "=" + queue.getValue(slot));
+                slot = (slot + 1) % queue.getDepth();
+              }
+              queue.release(count);
+            }
+          } catch (InterruptedException ex) {
+            queue.fail(ex);
+          }
+        }
+      };
+      collector.start();
+
+      List<String> expected = new ArrayList<String>();
+      for (int i = 0; i < 1000; i++) {
+        int slot = queue.claim();
+        queue.getKey(slot).set("k" + i);
+        queue.getValue(slot).set("v" + i);
+        queue.publish();
+        expected.add("k" + i + "=v" + i);
+      }
+      queue.close();
+      collector.join();
+
+      assertNull(queue.getFailure());
+      assertEquals(expected, taken);
+    }
+  }
+
+  public void testTakesPublishedRecordsAfterClose() throws Exception {
+    OutputQueue queue = new OutputQueue(4);
+    queue.claim();
+    queue.publish();
+    queue.claim();
+    queue.publish();
+    queue.close();
+    assertEquals(2, queue.take());
+    queue.release(2);
+    assertEquals(0, queue.take());
+  }
+
+  public void testClaimWaitsForRelease() throws Exception {
+    final OutputQueue queue = new OutputQueue(2);
+    queue.claim();
+    queue.publish();
+    queue.claim();
+    queue.publish();
+
+    Thread releaser = new Thread() {
+      public void run() {
+        try {
+          Thread.sleep(100);
+          queue.take();
+          queue.release(1);
+        } catch (InterruptedException ex) {
+        }
+      }
+    };
+    releaser.start();
+    assertEquals(0, queue.claim());
+    releaser.join();
+    assertTrue(queue.getPutWaitMillis() >= 50);
+  }
+
+  public void testClaimFailsAfterCollectorFails() throws Exception {
+    final OutputQueue queue = new OutputQueue(1);
+    queue.claim();
+    queue.publish();
+
+    final IOException failure = new IOException("collect failed");
+    Thread collector = new Thread() {
+      public void run() {
+        queue.fail(failure);
+      }
+    };
+    collector.start();
+    try {
+      // Waits for the full queue until the collector fails
+      queue.claim();
+      fail();
+    } catch (IOException ex) {
+      assertSame(failure, ex.getCause());
+    }
+    collector.join();
+    assertSame(failure, queue.getFailure());
+  }
+}
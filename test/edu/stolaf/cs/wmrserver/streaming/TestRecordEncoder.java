@@ -0,0 +1,104 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+
+public class TestRecordEncoder extends TestCase {
+
+  private static final byte[] TAB = { '\t' };
+
+  public void testWritesLines() throws IOException {
+    for (int capacity : new int[] { 1, 3, 64 }) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      RecordEncoder encoder = new RecordEncoder(out, capacity);
+      encoder.writeLine(new Text("key"), TAB, new Text("value"));
+      encoder.writeLine(null, TAB, new IntWritable(42));
+      encoder.writeLine(new BytesWritable("k".getBytes("UTF-8")), TAB, "");
+      encoder.flush();
+      assertEquals("key\tvalue\n42\nk\t\n", out.toString("UTF-8"));
+    }
+  }
+
+  public void testWritesFramedFields() throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(expected);
+    data.writeInt(3);
+    data.write("key".getBytes("UTF-8"));
+    data.writeInt(0);
+    data.writeInt(2);
+    data.write("\u00e9".getBytes("UTF-8"));
+    data.writeInt(-1);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RecordEncoder encoder = new RecordEncoder(out, 5);
+    encoder.writeField(new Text("key"));
+    encoder.writeField(new BytesWritable(new byte[0]));
+    encoder.writeField("\u00e9");
+    encoder.writeInt(-1);
+    encoder.flush();
+    assertEquals(new String(expected.toByteArray(), "ISO-8859-1"),
+                 new String(out.toByteArray(), "ISO-8859-1"));
+  }
+
+  public void testEncodesLikeStringGetBytes() throws IOException {
+    Random random = new Random(42);
+    // ASCII, two- and three-byte characters, and surrogates both paired
+    // and not
+    char[] chars = { 'a', '\t', '\u00e9', '\u07ff', '\u0800', '\uffff',
+                     '\ud83d', '\ude00', '\udbff', '\udfff' };
+    for (int i = 0; i < 500; i++) {
+      StringBuilder s = new StringBuilder();
+      int length = random.nextInt(40);
+      for (int j = 0; j < length; j++) {
+        s.append(chars[random.nextInt(chars.length)]);
+      }
+      String value = s.toString();
+      byte[] bytes = value.getBytes("UTF-8");
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      RecordEncoder encoder = new RecordEncoder(out, 1 + random.nextInt(64));
+      encoder.writeField(value);
+      encoder.flush();
+
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      new DataOutputStream(expected).writeInt(bytes.length);
+      expected.write(bytes);
+      assertEquals(value, new String(expected.toByteArray(), "ISO-8859-1"),
+                   new String(out.toByteArray(), "ISO-8859-1"));
+    }
+  }
+
+  public void testBatchesUntilFull() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RecordEncoder encoder = new RecordEncoder(out, 5);
+    encoder.writeLine(new Text("ab"), TAB, new Text("c"));
+    assertEquals(0, out.size());
+    encoder.writeLine(new Text("de"), TAB, new Text("f"));
+    assertEquals("ab\tc\n", out.toString("UTF-8"));
+    encoder.close();
+    assertEquals("ab\tc\nde\tf\n", out.toString("UTF-8"));
+  }
+}
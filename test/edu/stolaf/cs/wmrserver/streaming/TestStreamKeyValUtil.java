@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package edu.stolaf.cs.wmrserver.streaming;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class TestStreamKeyValUtil extends TestCase {
+
+  public void testFindBytes() {
+    byte[] utf = bytes("key\tvalue\tmore");
+    assertEquals(3, StreamKeyValUtil.findBytes(utf, 0, utf.length, bytes("\t")));
+    assertEquals(9, StreamKeyValUtil.findBytes(utf, 4, utf.length, bytes("\t")));
+    assertEquals(-1, StreamKeyValUtil.findBytes(utf, 0, 3, bytes("\t")));
+    assertEquals(4, StreamKeyValUtil.findBytes(utf, 0, utf.length, bytes("va")));
+    assertEquals(-1, StreamKeyValUtil.findBytes(utf, 0, 5, bytes("va")));
+    assertEquals(2, StreamKeyValUtil.findBytes(utf, 2, utf.length, new byte[0]));
+  }
+
+  public void testFindBytesMatchesNaiveSearch() {
+    // Long enough spans to take the word-at-a-time path, with a sparse
+    // alphabet so that matches land anywhere in a word
+    Random random = new Random(42);
+    byte[] alphabet = { 'a', 'a', 'a', 'a', 'a', 'a', '\t', (byte) 0xc3 };
+    for (int i = 0; i < 5000; i++) {
+      byte[] utf = new byte[random.nextInt(300)];
+      for (int j = 0; j < utf.length; j++) {
+        utf[j] = alphabet[random.nextInt(alphabet.length)];
+      }
+      byte[] b = new byte[1 + random.nextInt(3)];
+      for (int j = 0; j < b.length; j++) {
+        b[j] = alphabet[6 + random.nextInt(2)];
+      }
+      int start = random.nextInt(utf.length + 1);
+      int end = start + random.nextInt(utf.length - start + 1);
+      assertEquals(naiveFind(utf, start, end, b),
+                   StreamKeyValUtil.findBytes(utf, start, end, b));
+    }
+  }
+
+  private static int naiveFind(byte[] utf, int start, int end, byte[] b) {
+    for (int i = start; i + b.length <= end; i++) {
+      int j = 0;
+      while (j < b.length && utf[i + j] == b[j]) {
+        j++;
+      }
+      if (j == b.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static byte[] bytes(String s) {
+    try {
+      return s.getBytes("UTF-8");
+    } catch (java.io.UnsupportedEncodingException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+}
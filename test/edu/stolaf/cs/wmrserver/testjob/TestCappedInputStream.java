@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+
+
+public class TestCappedInputStream extends TestCase
+{
+	public void testPassesInputUnderCap() throws IOException
+	{
+		assertEquals("a\nbb\nccc", read("a\nbb\nccc", 100, 0));
+	}
+
+	public void testDropsLineCrossingCap() throws IOException
+	{
+		assertEquals("a\nbb\n", read("a\nbb\nccc\nd\n", 7, 0));
+		assertEquals("", read("abcdef\n", 3, 0));
+	}
+
+	public void testKeepsLinesEndingAtCap() throws IOException
+	{
+		assertEquals("a\nbb\n", read("a\nbb\nccc\n", 5, 0));
+		// An unterminated line is only whole if the input ends there
+		assertEquals("a\nbb", read("a\nbb", 4, 0));
+		assertEquals("a\n", read("a\nbb\n", 4, 0));
+	}
+
+	public void testCapsLineCount() throws IOException
+	{
+		assertEquals("a\nb\n", read("a\nb\nc\nd\n", 100, 2));
+		assertEquals("a\n", read("a\nb\nc\n", 3, 5));
+	}
+
+	public void testLongLinesGrowBuffer() throws IOException
+	{
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 20000; i++)
+			line.append('x');
+		String input = line + "\n" + line + "\n";
+		assertEquals(input, read(input, 100000, 0));
+		assertEquals(line + "\n", read(input, 30000, 0));
+	}
+
+	public void testEndsWithEOF() throws IOException
+	{
+		CappedInputStream input = new CappedInputStream(
+				new ByteArrayInputStream("a\nbb\nccc\n".getBytes("UTF-8")), 4);
+		byte[] buffer = new byte[16];
+		assertEquals(2, input.read(buffer, 0, buffer.length));
+		assertEquals(-1, input.read(buffer, 0, buffer.length));
+		assertEquals(-1, input.read());
+	}
+
+	/**
+	 * Reads all of a capped stream, once from the whole input and once from
+	 * input arriving a byte at a time, checking that both agree.
+	 */
+	private static String read(String input, long maximumCount,
+			long maximumRecords) throws IOException
+	{
+		byte[] bytes = input.getBytes("UTF-8");
+		String whole = drain(new CappedInputStream(
+				new ByteArrayInputStream(bytes), maximumCount, maximumRecords));
+		InputStream trickle = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+			public int read(byte[] b, int off, int len) throws IOException
+			{
+				return super.read(b, off, Math.min(len, 1));
+			}
+		};
+		assertEquals(whole, drain(new CappedInputStream(trickle, maximumCount,
+				maximumRecords)));
+		return whole;
+	}
+
+	private static String drain(InputStream input) throws IOException
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[3];
+		int read;
+		while ((read = input.read(buffer, 0, buffer.length)) != -1)
+		{
+			assertTrue("read returned 0 before the end", read > 0);
+			output.write(buffer, 0, read);
+		}
+		return output.toString("UTF-8");
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+
+public class TestLineSplitter extends TestCase
+{
+	public void testSplitsOnAnyLineEnding() throws IOException
+	{
+		assertEquals(list("a", "b", "c", "", "d"), split("a\nb\r\nc\r\rd\n"));
+	}
+
+	public void testPassesOnLastLineWhenClosed() throws IOException
+	{
+		assertEquals(list("a", "bc"), split("a\nbc"));
+		assertEquals(list(), split(""));
+	}
+
+	public void testJoinsLinesAcrossWrites() throws IOException
+	{
+		// Including a CR LF split between writes
+		Collector collector = new Collector();
+		for (String part : new String[] { "ab", "c\r", "\nd", "e\n" })
+			collector.write(part.getBytes("UTF-8"));
+		collector.close();
+		assertEquals(list("abc", "de"), collector.lines);
+	}
+
+	public void testGrowsForLongLines() throws IOException
+	{
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 10000; i++)
+			line.append((char)('a' + i % 26));
+		assertEquals(list(line.toString(), "x"), split(line + "\nx\n"));
+	}
+
+	public void testRejectsWritesAfterClose() throws IOException
+	{
+		Collector collector = new Collector();
+		collector.close();
+		try
+		{
+			collector.write('a');
+			fail();
+		}
+		catch (IOException ex)
+		{
+		}
+	}
+
+	private static List<String> split(String input) throws IOException
+	{
+		Collector collector = new Collector();
+		// A byte at a time, to split line endings across writes too
+		for (byte b : input.getBytes("UTF-8"))
+			collector.write(b);
+		collector.close();
+		return collector.lines;
+	}
+
+	private static List<String> list(String... lines)
+	{
+		List<String> list = new ArrayList<String>();
+		for (String line : lines)
+			list.add(line);
+		return list;
+	}
+
+
+	private static class Collector extends LineSplitter
+	{
+		public List<String> lines = new ArrayList<String>();
+
+		protected void line(byte[] bytes, int length) throws IOException
+		{
+			lines.add(new String(bytes, 0, length, "UTF-8"));
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.lib.HashPartitioner;
+import org.apache.hadoop.mapred.lib.KeyFieldBasedPartitioner;
+
+
+public class TestRecordPartitioner extends TestCase
+{
+	private static final int PARTITIONS = 5;
+
+	private File _tempDir;
+
+	protected void setUp() throws IOException
+	{
+		_tempDir = File.createTempFile("partitioner-", "-test");
+		_tempDir.delete();
+		_tempDir.mkdir();
+	}
+
+	protected void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(_tempDir);
+	}
+
+	public void testPartitionsLikeHashPartitioner() throws IOException
+	{
+		HashPartitioner<Text, Text> expected = new HashPartitioner<Text, Text>();
+		String[] sorted = partition(false);
+		for (int i = 0; i < 200; i++)
+		{
+			String key = "key" + i;
+			int partition =
+				expected.getPartition(new Text(key), null, PARTITIONS);
+			assertTrue(sorted[partition].contains(key + "\tvalue\n"));
+		}
+	}
+
+	public void testPartitionsNumericKeysLikeCluster() throws IOException
+	{
+		// Configured as HadoopEngine configures numeric jobs
+		JobConf conf = new JobConf();
+		conf.setKeyFieldPartitionerOptions("-n");
+		KeyFieldBasedPartitioner<Text, Text> expected =
+			new KeyFieldBasedPartitioner<Text, Text>();
+		expected.configure(conf);
+
+		String[] sorted = partition(true);
+		for (int i = 0; i < 200; i++)
+		{
+			String key = "key" + i;
+			int partition =
+				expected.getPartition(new Text(key), null, PARTITIONS);
+			assertTrue(sorted[partition].contains(key + "\tvalue\n"));
+		}
+	}
+
+	public void testSinglePartition()
+	{
+		byte[] line = "a\tb".getBytes();
+		assertEquals(0, RecordPartitioner.getPartition(line, line.length, 1));
+	}
+
+	/**
+	 * Partitions 200 records among sorters, each with a distinct key.
+	 *
+	 * @return What each sorter sorted.
+	 */
+	private String[] partition(boolean numeric) throws IOException
+	{
+		Configuration conf = new Configuration();
+		RecordSorter[] sorters = new RecordSorter[PARTITIONS];
+		for (int i = 0; i < sorters.length; i++)
+			sorters[i] = new RecordSorter(conf, numeric, _tempDir);
+
+		RecordPartitioner partitioner =
+			new RecordPartitioner(conf, numeric, sorters);
+		for (int i = 0; i < 200; i++)
+			partitioner.write(("key" + i + "\tvalue\n").getBytes("UTF-8"));
+		partitioner.close();
+
+		String[] sorted = new String[PARTITIONS];
+		int total = 0;
+		for (int i = 0; i < sorters.length; i++)
+		{
+			sorted[i] = IOUtils.toString(sorters[i].sort(), "UTF-8");
+			total += sorted[i].length() - sorted[i].replace("\n", "").length();
+		}
+		// Every record went to exactly one sorter
+		assertEquals(200, total);
+		return sorted;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+
+
+public class TestRecordSorter extends TestCase
+{
+	private File _tempDir;
+
+	protected void setUp() throws IOException
+	{
+		_tempDir = File.createTempFile("sorter-", "-test");
+		_tempDir.delete();
+		_tempDir.mkdir();
+	}
+
+	protected void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(_tempDir);
+	}
+
+	public void testSortsByKeyBytes() throws IOException
+	{
+		assertEquals("a\t1\nb\t\nb c\t2\tx\nc\t3\n",
+				sort(false, "c\t3\nb c\t2\tx\r\na\t1\rb\n"));
+	}
+
+	public void testSortsNumerically() throws IOException
+	{
+		String input = "100\td\n2\tb\n-1\ta\n10\tc\n";
+		assertEquals("-1\ta\n10\tc\n100\td\n2\tb\n", sort(false, input));
+		assertEquals("-1\ta\n2\tb\n10\tc\n100\td\n", sort(true, input));
+	}
+
+	public void testEmpty() throws IOException
+	{
+		RecordSorter sorter = new RecordSorter(new Configuration(), false, _tempDir);
+		assertTrue(sorter.isEmpty());
+		assertEquals("", IOUtils.toString(sorter.sort()));
+	}
+
+	public void testSpillsAndMerges() throws IOException
+	{
+		Configuration conf = new Configuration();
+		conf.setInt("wmr.tests.sort.memory", 256);
+		RecordSorter sorter = new RecordSorter(conf, false, _tempDir);
+
+		List<String> lines = new ArrayList<String>();
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++)
+			lines.add(Integer.toString(random.nextInt(1000000), 36) + "-" + i +
+					"\tvalue " + i);
+		OutputStream input = sorter.getInput();
+		for (String line : lines)
+			input.write((line + "\n").getBytes("UTF-8"));
+		assertTrue("no runs spilled", _tempDir.list().length > 0);
+
+		Collections.sort(lines);
+		StringBuilder expected = new StringBuilder();
+		for (String line : lines)
+			expected.append(line).append('\n');
+
+		InputStream sorted = sorter.sort();
+		assertEquals(expected.toString(), IOUtils.toString(sorted, "UTF-8"));
+		sorted.close();
+		assertEquals("temporary files left behind", 0, _tempDir.list().length);
+	}
+
+	public void testSpillsEveryRecord() throws IOException
+	{
+		// The last record spills too, leaving nothing in memory to sort
+		Configuration conf = new Configuration();
+		conf.setInt("wmr.tests.sort.memory", 1);
+		RecordSorter sorter = new RecordSorter(conf, false, _tempDir);
+		sorter.getInput().write("b\t2\na\t1\nc\t3\n".getBytes("UTF-8"));
+		InputStream sorted = sorter.sort();
+		assertEquals("a\t1\nb\t2\nc\t3\n", IOUtils.toString(sorted, "UTF-8"));
+		sorted.close();
+	}
+
+	private String sort(boolean numeric, String input) throws IOException
+	{
+		RecordSorter sorter = new RecordSorter(new Configuration(), numeric,
+				_tempDir);
+		sorter.getInput().write(input.getBytes("UTF-8"));
+		return IOUtils.toString(sorter.sort(), "UTF-8");
+	}
+}
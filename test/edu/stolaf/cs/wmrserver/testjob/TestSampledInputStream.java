@@ -0,0 +1,195 @@
+/*
+ * Copyright 2010 WebMapReduce Developers
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package edu.stolaf.cs.wmrserver.testjob;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import junit.framework.TestCase;
+
+
+public class TestSampledInputStream extends TestCase
+{
+	private File _dir;
+	private FileSystem _fs;
+
+	protected void setUp() throws IOException
+	{
+		_dir = File.createTempFile("sampled-", "-test");
+		_dir.delete();
+		_dir.mkdir();
+		_fs = FileSystem.getLocal(new Configuration());
+	}
+
+	protected void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	public void testReadsSmallInputWhole() throws IOException
+	{
+		FileStatus[] files = write("a\nbb\n", "ccc");
+		assertEquals("a\nbb\nccc", read(files, 100, 4));
+	}
+
+	public void testReadsInputExactlyAtLimit() throws IOException
+	{
+		FileStatus[] files = write("abc");
+		assertEquals("abc", read(files, 3, 8));
+		assertEquals("abc", readCapped(files, 3, 8));
+	}
+
+	public void testSeparatesFilesWithinLimit() throws IOException
+	{
+		// Each file but the last needs a newline, counted against the limit
+		FileStatus[] files = write("a", "bb", "c");
+		assertEquals("a\nbb\nc", read(files, 6, 8));
+		assertEquals("a\nbb\nc", readCapped(files, 6, 8));
+
+		// Without room for its newline, a file's last line is dropped
+		assertEquals("a\nc", read(files, 4, 8));
+		assertEquals("a\nc", readCapped(files, 4, 8));
+	}
+
+	public void testSamplesAcrossFiles() throws IOException
+	{
+		FileStatus[] files = write(lines("a", 50, 10), lines("b", 50, 10));
+		String sample = read(files, 400, 4);
+		assertTrue(sample.length() <= 400);
+		assertTrue(sample.startsWith("a"));
+		assertTrue(sample.contains("\nb"));
+		assertWholeLines(sample, 10);
+	}
+
+	public void testExtendsSampleToLongLine() throws IOException
+	{
+		// Each line is longer than a sample's share, but fits the limit
+		FileStatus[] files = write(lines("x", 20, 200));
+		String sample = read(files, 1000, 8);
+		assertTrue(sample.length() > 0);
+		assertTrue(sample.length() <= 1000);
+		assertWholeLines(sample, 200);
+	}
+
+	public void testMixedLineLengths() throws IOException
+	{
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 40; i++)
+			input.append(line("m", 70 + (i * 37) % 141));
+		FileStatus[] files = write(input.toString());
+		String sample = read(files, 1000, 8);
+		assertTrue(sample.length() > 0);
+		assertTrue(sample.length() <= 1000);
+		for (String line : sample.split("\n"))
+			assertTrue(input.indexOf(line + "\n") >= 0);
+	}
+
+	public void testFallsBackToHeadOfInput() throws IOException
+	{
+		// No line fits the limit, so none can be sampled, and the input is read
+		// from the start as if it weren't sampled, leaving the cap to the reader
+		String input = lines("y", 10, 500);
+		FileStatus[] files = write(input);
+		assertEquals(input, read(files, 300, 4));
+	}
+
+	/** Builds the given number of lines, each the given length with its newline. */
+	private static String lines(String prefix, int count, int length)
+	{
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			lines.append(line(prefix, length));
+		return lines.toString();
+	}
+
+	private static String line(String prefix, int length)
+	{
+		StringBuilder line = new StringBuilder();
+		while (line.length() < length - 1)
+			line.append(prefix);
+		line.setLength(length - 1);
+		return line.append('\n').toString();
+	}
+
+	private static void assertWholeLines(String sample, int length)
+	{
+		assertTrue(sample.endsWith("\n"));
+		for (String line : sample.split("\n"))
+			assertEquals(length - 1, line.length());
+	}
+
+	private FileStatus[] write(String... contents) throws IOException
+	{
+		ArrayList<FileStatus> files = new ArrayList<FileStatus>();
+		for (int i = 0; i < contents.length; i++)
+		{
+			File file = new File(_dir, "part-" + i);
+			OutputStream output = new FileOutputStream(file);
+			try
+			{
+				output.write(contents[i].getBytes("UTF-8"));
+			}
+			finally
+			{
+				output.close();
+			}
+			files.add(_fs.getFileStatus(new Path(file.getAbsolutePath())));
+		}
+		return files.toArray(new FileStatus[files.size()]);
+	}
+
+	private String read(FileStatus[] files, long maximumCount, int samples)
+		throws IOException
+	{
+		InputStream input = new SampledInputStream(_fs, files, maximumCount,
+				samples);
+		try
+		{
+			return new String(IOUtils.toByteArray(input), "UTF-8");
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+
+	/** Reads the files as a test job does, capped at the same limit. */
+	private String readCapped(FileStatus[] files, long maximumCount, int samples)
+		throws IOException
+	{
+		InputStream input = new CappedInputStream(new SampledInputStream(_fs,
+				files, maximumCount, samples), maximumCount);
+		try
+		{
+			return new String(IOUtils.toByteArray(input), "UTF-8");
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+}